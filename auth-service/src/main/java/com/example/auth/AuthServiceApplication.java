@@ -1,10 +1,13 @@
 package com.example.auth;
 
+import com.example.common.loadbalancer.LatencyAwareLoadBalancerConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 认证服务应用程序入口
@@ -12,11 +15,15 @@ import org.springframework.context.annotation.ComponentScan;
  * @EnableDiscoveryClient 启用服务发现客户端，用于向Nacos注册
  * @EnableFeignClients 启用Feign客户端，支持声明式服务调用
  * @ComponentScan 指定组件扫描的包，确保公共组件被加载
+ * @EnableScheduling 启用定时任务，用于清理过期的吊销记录
+ * @LoadBalancerClients 为所有下游服务使用延迟感知负载均衡器
  */
 @SpringBootApplication
 @EnableDiscoveryClient
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
 @EnableFeignClients
 @ComponentScan({"com.example.auth", "com.example.common"})
+@EnableScheduling
 public class AuthServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthServiceApplication.class, args);
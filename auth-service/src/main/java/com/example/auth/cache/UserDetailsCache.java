@@ -0,0 +1,173 @@
+package com.example.auth.cache;
+
+import com.example.auth.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 用户详情缓存
+ *
+ * 登录时按用户名加载用户要执行一次JPA查询，再加上EAGER的角色集合查询。
+ * 该缓存按用户名保存查询结果，重复登录的用户不再访问数据库。
+ *
+ * 设计要点:
+ * 1. 条目数量有上限，超出后由Caffeine按W-TinyLFU策略淘汰；
+ *    只出现一次的用户名很难挤掉频繁登录的用户
+ * 2. 不存在的用户名也会缓存一个较短时间的"空"条目，撞库流量不会反复查询数据库
+ * 3. 缓存的是用户的副本，每次命中返回新的副本，调用方修改返回值不会污染缓存
+ * 4. 用户保存后由UserService显式失效，存活时间只是兜底
+ * 5. 命中、未命中、淘汰等指标通过Micrometer暴露到actuator
+ *
+ * 远程用户源（auth.user-source=remote）下不使用该缓存，所有方法直接透传：
+ * 用户数据由用户服务维护，这里只能感知认证服务自己的保存操作，
+ * 用户服务中的改密码、禁用、注册在存活时间内都不会生效。
+ * RemoteUserServiceImpl已有带后台刷新的近端缓存，不需要再叠加一层。
+ */
+@Component
+public class UserDetailsCache {
+
+    /**
+     * 缓存名称，用作actuator指标中的cache标签
+     */
+    private static final String CACHE_NAME = "auth.user-details";
+
+    /**
+     * 底层Caffeine缓存
+     */
+    private final Cache<String, Entry> cache;
+
+    /**
+     * 是否启用缓存，远程用户源时为false
+     */
+    private final boolean enabled;
+
+    /**
+     * 构造函数
+     *
+     * @param meterRegistry 指标注册表，用于暴露缓存统计信息
+     * @param maxSize 最多缓存的用户名数量（包括不存在的用户名）
+     * @param ttlSeconds 已存在用户的存活时间（秒）
+     * @param negativeTtlSeconds 不存在用户名的存活时间（秒）
+     * @param userSource 用户来源，remote时不缓存
+     */
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                            @Value("${auth.user-cache.ttl:300}") long ttlSeconds,
+                            @Value("${auth.user-cache.negative-ttl:30}") long negativeTtlSeconds,
+                            @Value("${auth.user-source:local}") String userSource) {
+        this.enabled = !"remote".equals(userSource);
+        final long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        final long negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry value, long currentTime) {
+                        return value.user != null ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+                        return currentDuration;  // 读取不延长存活时间
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 按用户名获取用户，未命中时调用loader加载并缓存结果
+     *
+     * 同一个用户名的并发未命中只会调用一次loader；loader抛出的异常不会被缓存
+     *
+     * @param username 用户名
+     * @param loader 加载函数，用户不存在时返回null
+     * @return 用户的副本；用户不存在时返回null
+     */
+    public User get(String username, Function<String, User> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        Entry entry = cache.get(username, key -> new Entry(copyOf(loader.apply(key))));
+        return copyOf(entry.user);
+    }
+
+    /**
+     * 是否已缓存指定用户名（包括不存在的用户名）
+     *
+     * @param username 用户名
+     * @return 已缓存时返回true
+     */
+    public boolean contains(String username) {
+        return enabled && cache.getIfPresent(username) != null;
+    }
+
+    /**
+     * 缓存预先加载好的用户
+     *
+     * @param username 用户名
+     * @param user 用户，用户不存在时为null
+     */
+    public void put(String username, User user) {
+        if (!enabled) {
+            return;
+        }
+        cache.put(username, new Entry(copyOf(user)));
+    }
+
+    /**
+     * 使指定用户名的缓存失效
+     *
+     * @param username 用户名
+     */
+    public void invalidate(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * 当前缓存的条目数（近似值）
+     *
+     * @return 条目数
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static User copyOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        User copy = new User(user.getId(), user.getUsername(), user.getPassword(), user.getEmail(),
+                user.getRoles() != null ? new ArrayList<>(user.getRoles()) : new ArrayList<String>());
+        copy.setEnabled(user.isEnabled());
+        return copy;
+    }
+
+    /**
+     * 缓存条目，user为null表示用户名不存在
+     */
+    private static final class Entry {
+        private final User user;
+
+        private Entry(User user) {
+            this.user = user;
+        }
+    }
+}
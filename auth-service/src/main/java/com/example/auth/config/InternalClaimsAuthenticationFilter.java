@@ -0,0 +1,57 @@
+package com.example.auth.config;
+
+import com.example.common.security.InternalClaims;
+import com.example.common.security.InternalClaimsCodec;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内部声明认证过滤器
+ *
+ * 认证服务的管理接口（如批量导入用户）需要按角色授权。这些请求经网关转发，
+ * 网关已经验证过JWT并附带了签名的 X-Internal-Claims 请求头；
+ * 这里校验该请求头，把其中的用户和角色放入Spring Security上下文，供授权规则使用。
+ * 没有该请求头或校验失败时不设置认证信息，由授权规则决定是否拒绝。
+ */
+public class InternalClaimsAuthenticationFilter extends OncePerRequestFilter {
+
+    private final InternalClaimsCodec codec;
+
+    public InternalClaimsAuthenticationFilter(InternalClaimsCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(InternalClaimsCodec.HEADER);
+        InternalClaims claims = null;
+        if (header != null) {
+            try {
+                claims = codec.decode(header);
+            } catch (RuntimeException e) {
+                claims = null;  // 载荷格式错误，按未认证处理
+            }
+        }
+        if (claims != null) {
+            List<GrantedAuthority> authorities = new ArrayList<>(claims.getRoles().size());
+            for (String role : claims.getRoles()) {
+                authorities.add(new SimpleGrantedAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role));
+            }
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(claims, null, authorities));
+        }
+        chain.doFilter(request, response);
+    }
+}
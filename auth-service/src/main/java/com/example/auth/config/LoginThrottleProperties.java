@@ -0,0 +1,136 @@
+package com.example.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 登录节流配置
+ *
+ * 对应配置文件中的 auth.login-throttle。按客户端IP统计滑动窗口内的登录次数，
+ * 按（用户名, 客户端IP）统计滑动窗口内的登录失败次数，任一维度超限即拒绝，
+ * 持续超限时封禁时间从 base-backoff 开始指数增长到 max-backoff。
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.login-throttle")
+public class LoginThrottleProperties {
+
+    /**
+     * 是否启用登录节流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 按（用户名, 客户端IP）统计登录失败次数，防止针对单个账号的暴力破解
+     */
+    private Rule username = new Rule(10, Duration.ofMinutes(1));
+
+    /**
+     * 按客户端IP节流，防止单个来源的撞库流量
+     */
+    private Rule ip = new Rule(30, Duration.ofMinutes(1));
+
+    /**
+     * 第一次超限的封禁时间
+     */
+    private Duration baseBackoff = Duration.ofSeconds(1);
+
+    /**
+     * 封禁时间上限
+     */
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    /**
+     * 每个维度的计数槽数量，决定内存上限
+     */
+    private int stripes = 16384;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Rule getUsername() {
+        return username;
+    }
+
+    public void setUsername(Rule username) {
+        this.username = username;
+    }
+
+    public Rule getIp() {
+        return ip;
+    }
+
+    public void setIp(Rule ip) {
+        this.ip = ip;
+    }
+
+    public Duration getBaseBackoff() {
+        return baseBackoff;
+    }
+
+    public void setBaseBackoff(Duration baseBackoff) {
+        this.baseBackoff = baseBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    /**
+     * 单个维度的节流规则
+     */
+    public static class Rule {
+
+        /**
+         * 窗口内允许的登录次数
+         */
+        private int limit;
+
+        /**
+         * 滑动窗口长度
+         */
+        private Duration window;
+
+        public Rule() {
+        }
+
+        public Rule(int limit, Duration window) {
+            this.limit = limit;
+            this.window = window;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.auth.config;
 
+import com.example.auth.hashing.MeteredPasswordEncoder;
+import com.example.common.security.AdaptiveBCryptPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
@@ -19,11 +21,20 @@ public class PasswordEncoderConfig {
      * 
      * 用于对用户密码进行加密和验证
      * 使用BCrypt算法，这是一种强哈希算法，专为密码存储设计
+     * 代价在启动时按 auth.password-hashing.target-latency 校准，
+     * 存储的哈希代价低于它时，登录成功后会自动用新代价重新哈希
+     * 外层包装记录每次哈希和校验的耗时
      *
+     * @param properties 密码哈希配置
+     * @param meterRegistry 指标注册表
      * @return BCrypt密码编码器实例
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        AdaptiveBCryptPasswordEncoder encoder = properties.getCost() > 0
+                ? new AdaptiveBCryptPasswordEncoder(properties.getCost())
+                : AdaptiveBCryptPasswordEncoder.calibrated(properties.getTargetLatency(),
+                        properties.getMinCost(), properties.getMaxCost());
+        return new MeteredPasswordEncoder(encoder, meterRegistry);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.example.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 密码哈希线程池配置
+ *
+ * 对应配置文件中的 auth.password-hashing。BCrypt校验是纯CPU计算，
+ * 线程数超过CPU核数只会增加排队和上下文切换，因此默认与核数相同。
+ * BCrypt代价在启动时按目标延迟校准，也可以用 cost 固定。
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * 哈希线程数，小于等于0时使用CPU核数
+     */
+    private int threads = 0;
+
+    /**
+     * 等待队列容量，队列满时新的登录请求直接返回503
+     */
+    private int queueCapacity = 32;
+
+    /**
+     * 单次哈希的目标延迟，启动时选出不超过该延迟的最大BCrypt代价
+     */
+    private Duration targetLatency = Duration.ofMillis(100);
+
+    /**
+     * 校准时允许的最小代价，慢机器上也不会低于它
+     */
+    private int minCost = 10;
+
+    /**
+     * 校准时允许的最大代价
+     */
+    private int maxCost = 16;
+
+    /**
+     * 固定的BCrypt代价，大于0时跳过校准
+     */
+    private int cost = 0;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getTargetLatency() {
+        return targetLatency;
+    }
+
+    public void setTargetLatency(Duration targetLatency) {
+        this.targetLatency = targetLatency;
+    }
+
+    public int getMinCost() {
+        return minCost;
+    }
+
+    public void setMinCost(int minCost) {
+        this.minCost = minCost;
+    }
+
+    public int getMaxCost() {
+        return maxCost;
+    }
+
+    public void setMaxCost(int maxCost) {
+        this.maxCost = maxCost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public void setCost(int cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * 获取实际使用的线程数
+     *
+     * @return 配置的线程数，未配置时为CPU核数
+     */
+    public int resolveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 远程用户源配置
+ *
+ * 对应配置文件中的 auth.remote-user，只在 auth.user-source=remote 时生效。
+ * 包括近端缓存、调用超时、舱壁（并发隔离）和断路器的参数。
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.remote-user")
+public class RemoteUserSourceProperties {
+
+    /**
+     * 缓存条目的新鲜期，过期后读取时仍返回旧值，同时在后台刷新
+     */
+    private Duration cacheTtl = Duration.ofSeconds(30);
+
+    /**
+     * 缓存条目的最长存活时间，用户服务持续不可用时最多使用这么旧的数据
+     */
+    private Duration maxStale = Duration.ofMinutes(5);
+
+    /**
+     * 最多缓存的用户名数量
+     */
+    private long cacheMaxSize = 10000;
+
+    /**
+     * 单次远程调用的超时时间
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /**
+     * 舱壁线程数，即同时进行的远程调用上限
+     */
+    private int bulkheadThreads = 8;
+
+    /**
+     * 舱壁等待队列容量，队列满时立即失败
+     */
+    private int bulkheadQueueCapacity = 32;
+
+    /**
+     * 断路器打开的失败率阈值（百分比）
+     */
+    private float failureRateThreshold = 50;
+
+    /**
+     * 断路器打开的慢调用比例阈值（百分比），与失败率分别判断
+     */
+    private float slowCallRateThreshold = 50;
+
+    /**
+     * 超过该耗时的调用记为慢调用
+     */
+    private Duration slowCallThreshold = Duration.ofSeconds(1);
+
+    /**
+     * 断路器打开后等待多久进入半开状态
+     */
+    private Duration waitInOpenState = Duration.ofSeconds(10);
+
+    /**
+     * 断路器统计的最近调用次数
+     */
+    private int slidingWindowSize = 20;
+
+    /**
+     * 断路器开始计算失败率前至少需要的调用次数
+     */
+    private int minimumNumberOfCalls = 10;
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public Duration getMaxStale() {
+        return maxStale;
+    }
+
+    public void setMaxStale(Duration maxStale) {
+        this.maxStale = maxStale;
+    }
+
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getBulkheadThreads() {
+        return bulkheadThreads;
+    }
+
+    public void setBulkheadThreads(int bulkheadThreads) {
+        this.bulkheadThreads = bulkheadThreads;
+    }
+
+    public int getBulkheadQueueCapacity() {
+        return bulkheadQueueCapacity;
+    }
+
+    public void setBulkheadQueueCapacity(int bulkheadQueueCapacity) {
+        this.bulkheadQueueCapacity = bulkheadQueueCapacity;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(float failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public Duration getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    public void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    public Duration getWaitInOpenState() {
+        return waitInOpenState;
+    }
+
+    public void setWaitInOpenState(Duration waitInOpenState) {
+        this.waitInOpenState = waitInOpenState;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+    }
+}
@@ -8,6 +8,8 @@
  */
 package com.example.auth.config;
 
+import com.example.common.security.InternalClaimsCodec;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +20,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Spring Security配置类
@@ -35,11 +38,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     // 通过构造函数注入UserDetailsService，避免循环依赖
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    // 网关转发的内部声明头编解码器，未配置 internal-claims.secret 时不存在
+    private final ObjectProvider<InternalClaimsCodec> internalClaimsCodec;
 
     @Autowired
-    public SecurityConfig(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public SecurityConfig(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                          ObjectProvider<InternalClaimsCodec> internalClaimsCodec) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
+        this.internalClaimsCodec = internalClaimsCodec;
     }
 
     /**
@@ -79,7 +86,17 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         http.csrf().disable()  // 关闭CSRF保护，简化API调用
                 .authorizeRequests()  // 开始定义请求授权规则
                 .antMatchers("/auth/login", "/auth/register").permitAll()  // 登录和注册接口允许所有人访问
+                .antMatchers("/auth/refresh").permitAll()  // 刷新接口凭刷新令牌换取新令牌，自行校验
+                .antMatchers("/auth/revoke", "/auth/revocations").permitAll()  // 吊销接口自行校验令牌，吊销列表供网关同步
+                .antMatchers("/auth/users/**").hasRole("ADMIN")  // 用户管理接口只允许管理员访问
                 .anyRequest().authenticated();  // 其他所有请求都需要认证
+
+        // 经网关转发的请求携带内部声明头，据此建立认证信息
+        InternalClaimsCodec codec = internalClaimsCodec.getIfAvailable();
+        if (codec != null) {
+            http.addFilterBefore(new InternalClaimsAuthenticationFilter(codec),
+                    UsernamePasswordAuthenticationFilter.class);
+        }
     }
 
     /**
@@ -0,0 +1,75 @@
+package com.example.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户批量导入配置
+ *
+ * 对应配置文件中的 auth.user-import。
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.user-import")
+public class UserImportProperties {
+
+    /**
+     * 每批处理的记录数，每批并行哈希后用一次JDBC批量插入写入，并单独提交事务
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 并行哈希的线程数，小于等于0时使用CPU核数的一半，给登录请求留出CPU
+     */
+    private int hashParallelism = 0;
+
+    /**
+     * 导入结果中最多保留的错误信息条数
+     */
+    private int maxErrors = 100;
+
+    /**
+     * 每导入多少条记录输出一次进度日志
+     */
+    private int progressInterval = 10000;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getHashParallelism() {
+        return hashParallelism;
+    }
+
+    public void setHashParallelism(int hashParallelism) {
+        this.hashParallelism = hashParallelism;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public int getProgressInterval() {
+        return progressInterval;
+    }
+
+    public void setProgressInterval(int progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * 获取实际使用的哈希线程数
+     *
+     * @return 配置的线程数，未配置时为CPU核数的一半（至少1）
+     */
+    public int resolveHashParallelism() {
+        return hashParallelism > 0 ? hashParallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+}
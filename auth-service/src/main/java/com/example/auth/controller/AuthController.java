@@ -1,23 +1,43 @@
 package com.example.auth.controller;
 
 import com.example.auth.entity.LoginRequest;
+import com.example.auth.entity.RefreshRequest;
+import com.example.auth.entity.User;
+import com.example.auth.hashing.PasswordHashingExecutor;
+import com.example.auth.service.CustomUserDetailsService;
+import com.example.auth.service.RefreshTokenService;
+import com.example.auth.service.TokenRevocationService;
+import com.example.auth.throttle.LoginThrottle;
 import com.example.common.entity.Result;
+import com.example.common.entity.RevocationBatch;
 import com.example.common.util.JwtUtil;
+import com.example.common.util.VerifiedClaims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 认证控制器
@@ -44,6 +64,41 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    /**
+     * 令牌吊销服务
+     * 用于记录被吊销的令牌，并供网关增量同步
+     */
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    /**
+     * 刷新令牌服务
+     * 用于颁发和轮换刷新令牌
+     */
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    /**
+     * 用户详情服务
+     * 刷新令牌时加载用户的ID和角色，查询结果有缓存；登录时用它异步预加载用户
+     */
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    /**
+     * 登录节流器
+     * 在BCrypt校验之前按用户名和客户端IP拒绝过于频繁的登录尝试
+     */
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    /**
+     * 密码哈希线程池
+     * 登录时的BCrypt校验在这里执行，不占用Tomcat请求线程
+     */
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     /**
      * 用户登录接口
      * 
@@ -51,18 +106,98 @@ public class AuthController {
      * 
      * 流程:
      * 1. 接收用户名和密码
-     * 2. 通过认证管理器验证凭证
-     * 3. 如果验证成功，生成JWT令牌
-     * 4. 返回令牌给客户端
+     * 2. 按客户端IP的尝试次数和（用户名, IP）的失败次数节流，超限直接返回429，不做任何哈希计算
+     * 3. 异步预加载用户（远程用户源时不占用任何线程等待），
+     *    完成后把认证任务提交到密码哈希线程池，释放Tomcat请求线程
+     * 4. 在哈希线程上通过认证管理器验证凭证（BCrypt校验）
+     * 5. 如果验证成功，生成JWT访问令牌和刷新令牌并返回给客户端
+     * 
+     * 哈希线程池队列已满时直接返回503，登录高峰不会拖垮其他接口
      * 
      * @param loginRequest 包含用户名和密码的登录请求体
+     * @param request HTTP请求，用于获取客户端IP
+     * @param response HTTP响应，被节流时设置Retry-After
      * @return 包含JWT令牌的响应结果
      */
     @PostMapping("/login")
-    public Result<Map<String, String>> login(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<Result<Map<String, String>>> login(@RequestBody LoginRequest loginRequest,
+                                                                HttpServletRequest request,
+                                                                HttpServletResponse response) {
+        System.out.println("处理登录请求: " + loginRequest.getUsername());
+        String clientIp = clientIp(request);
+        long waitNanos = loginThrottle.check(loginRequest.getUsername(), clientIp);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+            return CompletableFuture.completedFuture(
+                    Result.fail(429, "登录尝试过于频繁，请" + retryAfterSeconds + "秒后重试"));
+        }
+        CompletableFuture<Result<Map<String, String>>> result = new CompletableFuture<>();
+        // 预加载完成后显式提交到哈希线程池，而不是用thenApplyAsync：
+        // Java 8中thenApplyAsync遇到拒绝时会在完成预加载的线程上直接抛出异常，结果永远不会完成
+        userDetailsService.preload(loginRequest.getUsername())
+                .whenComplete((loaded, error) -> submitAuthentication(loginRequest, clientIp, result));
+        return result.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            System.err.println("登录过程中发生异常: " + cause.getClass().getName());
+            return Result.fail(500, "登录失败: " + cause.getMessage());
+        });
+    }
+
+    /**
+     * 把认证任务提交到密码哈希线程池，队列已满时以503完成结果
+     *
+     * @param loginRequest 登录请求
+     * @param clientIp 客户端IP
+     * @param result 登录结果
+     */
+    private void submitAuthentication(LoginRequest loginRequest, String clientIp,
+                                      CompletableFuture<Result<Map<String, String>>> result) {
+        try {
+            passwordHashingExecutor.execute(() -> {
+                try {
+                    result.complete(authenticate(loginRequest, clientIp));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("登录请求过多，哈希线程池队列已满");
+            result.complete(Result.fail(503, "登录请求过多，请稍后重试"));
+        }
+    }
+
+    /**
+     * 获取客户端IP
+     * 
+     * 请求经网关转发时，网关会把它看到的客户端地址追加到X-Forwarded-For末尾，
+     * 取最后一个值，客户端自己伪造的前缀不会影响结果
+     * 
+     * @param request HTTP请求
+     * @return 客户端IP
+     */
+    private static String clientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isEmpty()) {
+            String last = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+            if (!last.isEmpty()) {
+                return last;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * 验证凭证并生成令牌，在密码哈希线程上执行
+     * 
+     * 令牌是无状态的，这里不写入SecurityContextHolder，避免认证信息残留在线程池线程上
+     * 
+     * @param loginRequest 登录请求
+     * @param clientIp 客户端IP，凭证无效时计入登录节流的失败次数
+     * @return 包含JWT令牌的响应结果
+     */
+    private Result<Map<String, String>> authenticate(LoginRequest loginRequest, String clientIp) {
         try {
-            System.out.println("处理登录请求: " + loginRequest.getUsername());
-            
             // 创建认证令牌对象（包含用户名和密码）
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -72,21 +207,20 @@ public class AuthController {
             );
             
             System.out.println("认证成功，生成JWT令牌");
-
-            // 如果认证成功，将认证信息存储在上下文中
-            SecurityContextHolder.getContext().setAuthentication(authentication);
             
-            // 为用户生成JWT令牌
-            String jwt = jwtUtil.generateToken(loginRequest.getUsername());
+            // 为用户生成JWT令牌，用户ID和角色一并写入令牌，网关验证后转发给下游服务
+            String jwt = generateToken(authentication);
             
-            // 将令牌封装到响应中
+            // 将令牌封装到响应中，刷新令牌用于访问令牌过期后换取新令牌
             Map<String, String> tokenMap = new HashMap<>();
             tokenMap.put("token", jwt);
+            tokenMap.put("refreshToken", refreshTokenService.issue(authentication.getName()));
             
             // 返回成功响应，包含JWT令牌
             return Result.success(tokenMap);
         } catch (BadCredentialsException e) {
             System.err.println("认证失败：凭证无效 - " + e.getMessage());
+            loginThrottle.recordFailure(loginRequest.getUsername(), clientIp);
             return Result.fail(401, "用户名或密码错误");
         } catch (AuthenticationException e) {
             System.err.println("认证异常：" + e.getClass().getName() + " - " + e.getMessage());
@@ -98,6 +232,120 @@ public class AuthController {
         }
     }
     
+    /**
+     * 刷新令牌接口
+     * 
+     * 用刷新令牌换取新的访问令牌，不需要密码，也不做BCrypt校验
+     * 
+     * 流程:
+     * 1. 作废传入的刷新令牌（每个刷新令牌只能使用一次）
+     * 2. 加载用户的ID和角色（有缓存），确认用户仍然可用
+     * 3. 生成新的访问令牌和新的刷新令牌
+     * 
+     * HTTP POST /auth/refresh
+     * 
+     * @param refreshRequest 包含刷新令牌的请求体
+     * @return 包含新访问令牌和新刷新令牌的响应结果
+     */
+    @PostMapping("/refresh")
+    public Result<Map<String, String>> refresh(@RequestBody RefreshRequest refreshRequest) {
+        String username = refreshTokenService.consume(refreshRequest.getRefreshToken());
+        if (username == null) {
+            return Result.fail(401, "刷新令牌无效或已过期");
+        }
+
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return Result.fail(401, "用户不存在");
+        }
+        if (!user.isEnabled() || !user.isAccountNonLocked()) {
+            return Result.fail(401, "用户已被禁用");
+        }
+
+        String jwt = user instanceof User
+                ? jwtUtil.generateToken(username, ((User) user).getId(), ((User) user).getRoles())
+                : jwtUtil.generateToken(username);
+
+        Map<String, String> tokenMap = new HashMap<>();
+        tokenMap.put("token", jwt);
+        tokenMap.put("refreshToken", refreshTokenService.issue(username));
+        return Result.success(tokenMap);
+    }
+
+    /**
+     * 根据认证结果生成令牌
+     * 
+     * 认证主体是本服务的User时写入用户ID和角色，否则只写入用户名
+     * 
+     * @param authentication 认证结果
+     * @return JWT令牌
+     */
+    private String generateToken(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof User) {
+            User user = (User) principal;
+            return jwtUtil.generateToken(user.getUsername(), user.getId(), user.getRoles());
+        }
+        return jwtUtil.generateToken(authentication.getName());
+    }
+
+    /**
+     * 吊销当前令牌
+     * 
+     * 客户端携带要吊销的令牌调用此接口（例如用户退出登录时），
+     * 令牌ID会被记录下来，网关同步后该令牌即失效。
+     * 请求体中带上登录时获得的刷新令牌时，刷新令牌同时作废，之后不能再换取新的访问令牌；
+     * 访问令牌已经过期时也可以只提交刷新令牌完成退出
+     * 
+     * HTTP POST /auth/revoke
+     * 
+     * @param authHeader Authorization请求头，格式为 Bearer {token}
+     * @param refreshRequest 可选，包含要一并作废的刷新令牌
+     * @return 操作结果
+     */
+    @PostMapping("/revoke")
+    public Result<Void> revoke(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                               @RequestBody(required = false) RefreshRequest refreshRequest) {
+        boolean refreshRevoked = refreshRequest != null
+                && refreshTokenService.consume(refreshRequest.getRefreshToken()) != null;
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return refreshRevoked ? Result.success() : Result.fail(401, "缺少令牌");
+        }
+
+        VerifiedClaims claims;
+        try {
+            claims = jwtUtil.verify(authHeader.substring(7));
+        } catch (JwtException e) {
+            // 访问令牌已过期时无需吊销，只要刷新令牌已作废，退出登录就完成了
+            return refreshRevoked ? Result.success() : Result.fail(401, "令牌无效或已过期");
+        }
+        if (claims.getId() == null) {
+            return Result.fail(400, "令牌不包含ID，无法吊销");
+        }
+
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+        return Result.success();
+    }
+
+    /**
+     * 增量查询吊销记录
+     * 
+     * 供网关定期调用，拉取指定序号之后新增的吊销记录
+     * 
+     * HTTP GET /auth/revocations?after=0&limit=1000
+     * 
+     * @param after 起始序号（不包含）
+     * @param limit 单批最大数量
+     * @return 增量吊销数据
+     */
+    @GetMapping("/revocations")
+    public Result<RevocationBatch> revocations(@RequestParam(defaultValue = "0") long after,
+                                               @RequestParam(defaultValue = "1000") int limit) {
+        return Result.success(tokenRevocationService.changesSince(after, Math.min(Math.max(limit, 1), 10000)));
+    }
+
     /**
      * 全局异常处理
      */
@@ -0,0 +1,73 @@
+package com.example.auth.controller;
+
+import com.example.auth.entity.UserImportReport;
+import com.example.auth.importer.CsvUserRecordReader;
+import com.example.auth.importer.NdjsonUserRecordReader;
+import com.example.auth.importer.UserImportService;
+import com.example.auth.importer.UserRecordReader;
+import com.example.common.entity.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 用户导入控制器
+ *
+ * 管理员批量导入用户，请求体为NDJSON（application/x-ndjson）或CSV（text/csv），
+ * 直接从请求输入流中逐行读取，不会把整个请求体读入内存。
+ * 只有ADMIN角色可以访问，角色来自网关转发的内部声明头。
+ */
+@RestController
+@RequestMapping("/auth/users")
+public class UserImportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final UserImportService userImportService;
+
+    private final ObjectMapper objectMapper;
+
+    public UserImportController(UserImportService userImportService, ObjectMapper objectMapper) {
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 批量导入用户
+     *
+     * @param request HTTP请求，请求体为NDJSON或CSV
+     * @return 导入结果，包括导入、跳过、失败的数量和吞吐量
+     * @throws IOException 读取请求体失败
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public Result<UserImportReport> importUsers(HttpServletRequest request) throws IOException {
+        MediaType contentType = StringUtils.hasText(request.getContentType())
+                ? MediaType.parseMediaType(request.getContentType())
+                : NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader body = new BufferedReader(new InputStreamReader(request.getInputStream(), charset));
+
+        UserRecordReader reader;
+        try {
+            reader = MediaType.parseMediaType("text/csv").includes(contentType)
+                    ? new CsvUserRecordReader(body)
+                    : new NdjsonUserRecordReader(body, objectMapper);
+        } catch (IllegalArgumentException e) {
+            body.close();
+            return Result.fail(400, e.getMessage());
+        }
+        try (UserRecordReader records = reader) {
+            return Result.success(userImportService.importUsers(records));
+        }
+    }
+}
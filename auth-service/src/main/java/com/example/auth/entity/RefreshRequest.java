@@ -0,0 +1,49 @@
+package com.example.auth.entity;
+
+/**
+ * 刷新令牌请求实体类
+ * 
+ * 客户端用登录时获得的刷新令牌换取新的访问令牌，
+ * 服务器将请求JSON反序列化为此类的实例。
+ */
+public class RefreshRequest {
+    /**
+     * 刷新令牌
+     * 登录或上一次刷新时颁发，只能使用一次
+     */
+    private String refreshToken;
+    
+    /**
+     * 无参构造函数
+     * Spring MVC在反序列化JSON数据时需要使用
+     */
+    public RefreshRequest() {
+    }
+    
+    /**
+     * 带参数的构造函数
+     * 
+     * @param refreshToken 刷新令牌
+     */
+    public RefreshRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    /**
+     * 获取刷新令牌
+     * 
+     * @return 刷新令牌
+     */
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    /**
+     * 设置刷新令牌
+     * 
+     * @param refreshToken 刷新令牌
+     */
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.auth.entity;
+
+import java.util.List;
+
+/**
+ * 批量导入的用户记录
+ * 
+ * 对应NDJSON中的一行或CSV中的一行。password可以是明文，
+ * 也可以是已经哈希好的BCrypt值（以 $2a$、$2b$ 或 $2y$ 开头），后者原样写入。
+ */
+public class UserImportRecord {
+
+    private String username;
+
+    private String password;
+
+    private String email;
+
+    private List<String> roles;
+
+    /**
+     * 是否启用，未指定时为启用
+     */
+    private Boolean enabled;
+
+    public UserImportRecord() {
+    }
+
+    public UserImportRecord(String username, String password, String email, List<String> roles, Boolean enabled) {
+        this.username = username;
+        this.password = password;
+        this.email = email;
+        this.roles = roles;
+        this.enabled = enabled;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.auth.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果
+ * 
+ * 统计读取、导入、跳过（用户名已存在或重复）和失败（格式错误）的记录数，以及耗时和吞吐量。
+ */
+public class UserImportReport {
+
+    /**
+     * 读取的记录总数
+     */
+    private long total;
+
+    /**
+     * 成功写入的用户数
+     */
+    private long imported;
+
+    /**
+     * 因用户名已存在或在导入数据中重复而跳过的记录数
+     */
+    private long skipped;
+
+    /**
+     * 格式错误或缺少必填字段的记录数
+     */
+    private long failed;
+
+    /**
+     * 其中需要哈希的明文密码数
+     */
+    private long hashed;
+
+    private long elapsedMillis;
+
+    /**
+     * 每秒导入的用户数
+     */
+    private double usersPerSecond;
+
+    /**
+     * 前若干条错误信息，包含行号
+     */
+    private List<String> errors = new ArrayList<>();
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getHashed() {
+        return hashed;
+    }
+
+    public void setHashed(long hashed) {
+        this.hashed = hashed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getUsersPerSecond() {
+        return usersPerSecond;
+    }
+
+    public void setUsersPerSecond(double usersPerSecond) {
+        this.usersPerSecond = usersPerSecond;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.auth.importer;
+
+import com.example.auth.entity.UserImportRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSV格式的用户记录读取器
+ *
+ * 第一行是表头，列名为 username、password、email、roles、enabled，顺序任意，
+ * 其中 username 和 password 必须存在。enabled 只能是 true 或 false（忽略大小写），
+ * 其他值按格式错误计入失败。多个角色用 | 分隔，例如:
+ * username,password,email,roles
+ * alice,secret,alice@example.com,USER|ADMIN
+ * 字段可以用双引号包围，引号内的 "" 表示一个双引号；不支持跨行的字段。
+ */
+public class CsvUserRecordReader implements UserRecordReader {
+
+    private final BufferedReader reader;
+
+    private long lineNumber;
+
+    private int usernameColumn = -1;
+    private int passwordColumn = -1;
+    private int emailColumn = -1;
+    private int rolesColumn = -1;
+    private int enabledColumn = -1;
+
+    public CsvUserRecordReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String header = readNonBlankLine();
+        if (header == null) {
+            return;  // 空文件
+        }
+        List<String> columns = split(header);
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).trim().toLowerCase(Locale.ROOT);
+            if ("username".equals(column)) {
+                usernameColumn = i;
+            } else if ("password".equals(column)) {
+                passwordColumn = i;
+            } else if ("email".equals(column)) {
+                emailColumn = i;
+            } else if ("roles".equals(column)) {
+                rolesColumn = i;
+            } else if ("enabled".equals(column)) {
+                enabledColumn = i;
+            }
+        }
+        if (usernameColumn < 0 || passwordColumn < 0) {
+            throw new IllegalArgumentException("CSV表头必须包含username和password列");
+        }
+    }
+
+    @Override
+    public UserImportRecord next() throws IOException {
+        if (usernameColumn < 0) {
+            return null;
+        }
+        String line = readNonBlankLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = split(line);
+        String roles = field(fields, rolesColumn);
+        String enabled = field(fields, enabledColumn);
+        return new UserImportRecord(
+                field(fields, usernameColumn),
+                field(fields, passwordColumn),
+                field(fields, emailColumn),
+                roles == null || roles.isEmpty() ? null : new ArrayList<>(Arrays.asList(roles.split("\\|"))),
+                parseEnabled(enabled));
+    }
+
+    /**
+     * 解析enabled列，只接受true或false（忽略大小写），为空时使用默认值
+     */
+    private Boolean parseEnabled(String enabled) {
+        if (enabled == null) {
+            return null;
+        }
+        if ("true".equalsIgnoreCase(enabled)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(enabled)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("第" + lineNumber + "行enabled格式错误");
+    }
+
+    @Override
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String readNonBlankLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.trim().isEmpty());
+        return line;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 按逗号拆分一行，处理双引号包围的字段
+     */
+    private List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("第" + lineNumber + "行引号未闭合");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.auth.importer;
+
+import com.example.auth.entity.UserImportRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * NDJSON格式的用户记录读取器
+ *
+ * 每行一个JSON对象，例如:
+ * {"username":"alice","password":"secret","email":"alice@example.com","roles":["USER"]}
+ * 空行会被忽略。
+ */
+public class NdjsonUserRecordReader implements UserRecordReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectReader objectReader;
+
+    private long lineNumber;
+
+    public NdjsonUserRecordReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectReader = objectMapper.readerFor(UserImportRecord.class);
+    }
+
+    @Override
+    public UserImportRecord next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.trim().isEmpty());
+
+        try {
+            return objectReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("第" + lineNumber + "行JSON格式错误: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.auth.importer;
+
+import com.example.auth.cache.UserDetailsCache;
+import com.example.auth.config.UserImportProperties;
+import com.example.auth.entity.UserImportRecord;
+import com.example.auth.entity.UserImportReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 用户批量导入服务
+ *
+ * 逐条读取记录并按批处理，每批的流程:
+ * 1. 批内按用户名去重，再用一次 IN 查询跳过数据库中已存在的用户名
+ * 2. 在有界的ForkJoinPool中并行哈希明文密码，已经是BCrypt哈希的密码原样保留
+ * 3. 在一个事务中用JDBC批量插入users和user_roles
+ *
+ * 不走JPA的saveAll：User的主键是IDENTITY生成的，Hibernate会为每个实体单独执行INSERT并取回主键，
+ * JDBC批处理因此失效。这里直接批量插入用户，再用一次查询取回这一批的主键写入角色。
+ *
+ * 哈希线程数默认只占CPU核数的一半，导入期间登录请求仍有CPU可用；
+ * 每批单独提交事务，中途失败时已提交的批次保留，结果中会给出失败的行。
+ */
+@Service
+public class UserImportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_USER = "insert into users (username, password, email, enabled) values (?, ?, ?, ?)";
+
+    private static final String INSERT_ROLE = "insert into user_roles (user_id, role) values (?, ?)";
+
+    private static final String DEFAULT_ROLE = "USER";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final UserDetailsCache userDetailsCache;
+
+    private final UserImportProperties properties;
+
+    /**
+     * 专用于导入的哈希线程池，与登录使用的哈希线程池相互隔离
+     */
+    private final ForkJoinPool hashPool;
+
+    private final Counter importedCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             PasswordEncoder passwordEncoder,
+                             UserDetailsCache userDetailsCache,
+                             UserImportProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsCache = userDetailsCache;
+        this.properties = properties;
+        this.hashPool = new ForkJoinPool(properties.resolveHashParallelism());
+        this.importedCounter = meterRegistry.counter("auth.user-import.records", "result", "imported");
+        this.skippedCounter = meterRegistry.counter("auth.user-import.records", "result", "skipped");
+        this.failedCounter = meterRegistry.counter("auth.user-import.records", "result", "failed");
+    }
+
+    /**
+     * 导入读取器中的全部记录
+     *
+     * @param reader 记录读取器，由调用方负责关闭
+     * @return 导入结果
+     * @throws IOException 读取请求体失败
+     */
+    public UserImportReport importUsers(UserRecordReader reader) throws IOException {
+        long start = System.nanoTime();
+        UserImportReport report = new UserImportReport();
+        List<NumberedRecord> batch = new ArrayList<>(properties.getBatchSize());
+        long nextProgress = properties.getProgressInterval();
+
+        while (true) {
+            UserImportRecord record;
+            try {
+                record = reader.next();
+            } catch (IllegalArgumentException e) {
+                report.setTotal(report.getTotal() + 1);
+                fail(report, e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            report.setTotal(report.getTotal() + 1);
+
+            long line = reader.lineNumber();
+            if (isBlank(record.getUsername()) || isBlank(record.getPassword())) {
+                fail(report, "第" + line + "行缺少用户名或密码");
+                continue;
+            }
+            batch.add(new NumberedRecord(line, record));
+            if (batch.size() >= properties.getBatchSize()) {
+                flush(batch, report);
+                batch.clear();
+            }
+            if (report.getTotal() >= nextProgress) {
+                logProgress(report, start);
+                nextProgress += properties.getProgressInterval();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, report);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.setUsersPerSecond(elapsedNanos > 0 ? report.getImported() * 1e9 / elapsedNanos : 0);
+        log.info("用户导入完成: 共{}条, 导入{}, 跳过{}, 失败{}, 耗时{}ms, {}个/秒",
+                report.getTotal(), report.getImported(), report.getSkipped(), report.getFailed(),
+                report.getElapsedMillis(), String.format("%.1f", report.getUsersPerSecond()));
+        return report;
+    }
+
+    /**
+     * 处理一批记录：去重、并行哈希、批量写入
+     */
+    private void flush(List<NumberedRecord> batch, UserImportReport report) {
+        Map<String, NumberedRecord> unique = new LinkedHashMap<>();
+        for (NumberedRecord numbered : batch) {
+            String username = numbered.record.getUsername().trim();
+            if (unique.putIfAbsent(username, numbered) != null) {
+                skip(report, 1);
+            }
+        }
+        Set<String> existing = findExisting(unique.keySet());
+        skip(report, existing.size());
+        unique.keySet().removeAll(existing);
+        if (unique.isEmpty()) {
+            return;
+        }
+
+        List<Row> rows;
+        try {
+            rows = hashPool.submit(() -> unique.entrySet().parallelStream()
+                    .map(entry -> toRow(entry.getKey(), entry.getValue().record))
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("用户导入被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码哈希失败", e.getCause());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(rows));
+        } catch (DataAccessException e) {
+            // 通常是导入期间有同名用户被并发注册，整批回滚后记为失败
+            long first = batch.get(0).line;
+            long last = batch.get(batch.size() - 1).line;
+            report.setFailed(report.getFailed() + rows.size());
+            failedCounter.increment(rows.size());
+            addError(report, "第" + first + "-" + last + "行写入失败: " + e.getMostSpecificCause().getMessage());
+            return;
+        }
+
+        long hashed = 0;
+        for (Row row : rows) {
+            userDetailsCache.invalidate(row.username);
+            if (row.hashed) {
+                hashed++;
+            }
+        }
+        report.setImported(report.getImported() + rows.size());
+        report.setHashed(report.getHashed() + hashed);
+        importedCounter.increment(rows.size());
+    }
+
+    private Row toRow(String username, UserImportRecord record) {
+        String password = record.getPassword();
+        boolean hashed = !isBCryptHash(password);
+        List<String> roles = record.getRoles() == null || record.getRoles().isEmpty()
+                ? Collections.singletonList(DEFAULT_ROLE)
+                : record.getRoles();
+        return new Row(username,
+                hashed ? passwordEncoder.encode(password) : password,
+                record.getEmail(),
+                record.getEnabled() == null || record.getEnabled(),
+                roles,
+                hashed);
+    }
+
+    private void insert(List<Row> rows) {
+        jdbcTemplate.batchUpdate(INSERT_USER, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.username);
+            ps.setString(2, row.password);
+            ps.setString(3, row.email);
+            ps.setBoolean(4, row.enabled);
+        });
+
+        Map<String, Long> ids = new HashMap<>(rows.size() * 2);
+        namedJdbcTemplate.query("select id, username from users where username in (:usernames)",
+                usernames(rows),
+                rs -> {
+                    ids.put(rs.getString("username"), rs.getLong("id"));
+                });
+
+        List<Object[]> roleRows = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Long id = ids.get(row.username);
+            for (String role : row.roles) {
+                String trimmed = role.trim();
+                if (!trimmed.isEmpty()) {
+                    roleRows.add(new Object[]{id, trimmed});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROLE, roleRows);
+    }
+
+    private Set<String> findExisting(Collection<String> usernames) {
+        Set<String> existing = new HashSet<>();
+        namedJdbcTemplate.query("select username from users where username in (:usernames)",
+                new MapSqlParameterSource("usernames", usernames),
+                rs -> {
+                    existing.add(rs.getString(1));
+                });
+        return existing;
+    }
+
+    private static MapSqlParameterSource usernames(List<Row> rows) {
+        List<String> names = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            names.add(row.username);
+        }
+        return new MapSqlParameterSource("usernames", names);
+    }
+
+    private void skip(UserImportReport report, long count) {
+        if (count > 0) {
+            report.setSkipped(report.getSkipped() + count);
+            skippedCounter.increment(count);
+        }
+    }
+
+    private void fail(UserImportReport report, String message) {
+        report.setFailed(report.getFailed() + 1);
+        failedCounter.increment();
+        addError(report, message);
+    }
+
+    private void addError(UserImportReport report, String message) {
+        if (report.getErrors().size() < properties.getMaxErrors()) {
+            report.getErrors().add(message);
+        }
+    }
+
+    private void logProgress(UserImportReport report, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("用户导入进度: 已读取{}条, 导入{}, 跳过{}, 失败{}, {}个/秒",
+                report.getTotal(), report.getImported(), report.getSkipped(), report.getFailed(),
+                String.format("%.1f", seconds > 0 ? report.getImported() / seconds : 0));
+    }
+
+    private static boolean isBCryptHash(String password) {
+        return password.length() == 60
+                && (password.startsWith("$2a$") || password.startsWith("$2b$") || password.startsWith("$2y$"));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    @Override
+    public void destroy() {
+        hashPool.shutdown();
+    }
+
+    /**
+     * 带行号的记录
+     */
+    private static final class NumberedRecord {
+
+        private final long line;
+
+        private final UserImportRecord record;
+
+        private NumberedRecord(long line, UserImportRecord record) {
+            this.line = line;
+            this.record = record;
+        }
+    }
+
+    /**
+     * 待写入的一行用户数据
+     */
+    private static final class Row {
+
+        private final String username;
+        private final String password;
+        private final String email;
+        private final boolean enabled;
+        private final List<String> roles;
+
+        /**
+         * 密码是否由本次导入哈希
+         */
+        private final boolean hashed;
+
+        private Row(String username, String password, String email, boolean enabled, List<String> roles, boolean hashed) {
+            this.username = username;
+            this.password = password;
+            this.email = email;
+            this.enabled = enabled;
+            this.roles = roles;
+            this.hashed = hashed;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.auth.importer;
+
+import com.example.auth.entity.UserImportRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 用户记录读取器
+ *
+ * 从请求体中逐行流式读取用户记录，内存中只保留当前一行，适合导入百万级的用户数据。
+ */
+public interface UserRecordReader extends Closeable {
+
+    /**
+     * 读取下一条记录
+     *
+     * 某一行格式错误时抛出IllegalArgumentException，读取器仍可继续读取后续行
+     *
+     * @return 下一条记录；已读完时返回null
+     * @throws IOException 读取请求体失败
+     */
+    UserImportRecord next() throws IOException;
+
+    /**
+     * 最近读取的行号，从1开始
+     *
+     * @return 行号
+     */
+    long lineNumber();
+}
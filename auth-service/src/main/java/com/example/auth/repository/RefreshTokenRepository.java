@@ -0,0 +1,59 @@
+package com.example.auth.repository;
+
+import com.example.auth.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 刷新令牌数据访问接口
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * 按令牌摘要查询
+     *
+     * @param tokenHash 令牌摘要
+     * @return 刷新令牌记录，不存在时返回null
+     */
+    RefreshToken findByTokenHash(String tokenHash);
+
+    /**
+     * 按令牌摘要删除
+     *
+     * 使用单条DELETE语句，并发使用同一个令牌时只有一个调用方能删除成功
+     *
+     * @param tokenHash 令牌摘要
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * 删除用户的所有刷新令牌
+     *
+     * @param username 用户名
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.username = :username")
+    int deleteByUsername(@Param("username") String username);
+
+    /**
+     * 删除已过期的刷新令牌
+     *
+     * @param expiresAt 过期时间阈值（毫秒时间戳）
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.expiresAt < :expiresAt")
+    int deleteByExpiresAtLessThan(@Param("expiresAt") long expiresAt);
+}
@@ -0,0 +1,47 @@
+package com.example.auth.repository;
+
+import com.example.auth.entity.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 已吊销令牌数据访问接口
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * 按序号升序查询指定序号之后的吊销记录
+     *
+     * @param id 起始序号（不包含）
+     * @param pageable 分页参数，用于限制单批数量
+     * @return 吊销记录列表
+     */
+    List<RevokedToken> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * 查询序号最大的一条吊销记录
+     *
+     * @return 最新的吊销记录，如果没有任何记录则返回null
+     */
+    RevokedToken findTopByOrderByIdDesc();
+
+    /**
+     * 检查令牌是否已被吊销
+     *
+     * @param jti 令牌ID
+     * @return 如果已吊销则返回true，否则返回false
+     */
+    boolean existsByJti(String jti);
+
+    /**
+     * 删除原本就已过期的吊销记录
+     *
+     * @param expiresAt 过期时间阈值（毫秒时间戳）
+     * @return 删除的记录数
+     */
+    long deleteByExpiresAtLessThan(long expiresAt);
+}
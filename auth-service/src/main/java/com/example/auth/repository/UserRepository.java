@@ -2,8 +2,13 @@ package com.example.auth.repository;
 
 import com.example.auth.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 用户数据访问接口
  * 
@@ -23,6 +28,45 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     User findByUsername(String username);
     
+    /**
+     * 查询认证所需的用户字段
+     * 
+     * 用户表与角色表连接后一次查询返回，每个角色一行（没有角色时返回一行，角色列为null）。
+     * 只查询标量字段，不创建受管实体，也不触发EAGER集合的第二次查询
+     * 
+     * @param username 用户名
+     * @return 每行依次为 id、username、password、enabled、role
+     */
+    @Query("select u.id, u.username, u.password, u.enabled, r from User u left join u.roles r "
+            + "where u.username = :username")
+    List<Object[]> findAuthenticationRows(@Param("username") String username);
+    
+    /**
+     * 按用户名加载认证所需的用户信息
+     * 
+     * 登录路径专用：返回的User不受持久化上下文管理，不包含email等与认证无关的字段，
+     * 不能用于修改后保存
+     * 
+     * @param username 用户名
+     * @return 用户，如果不存在则返回null
+     */
+    default User findForAuthentication(String username) {
+        List<Object[]> rows = findAuthenticationRows(username);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] first = rows.get(0);
+        List<String> roles = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[4] != null) {
+                roles.add((String) row[4]);
+            }
+        }
+        User user = new User((Long) first[0], (String) first[1], (String) first[2], null, roles);
+        user.setEnabled((Boolean) first[3]);
+        return user;
+    }
+    
     /**
      * 检查用户名是否存在
      * 
@@ -1,26 +1,36 @@
 package com.example.auth.service;
 
+import com.example.auth.cache.UserDetailsCache;
 import com.example.auth.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 自定义用户详情服务
  * 
  * 实现Spring Security的UserDetailsService接口
  * 用于在认证过程中根据用户名加载用户信息
+ * 查询结果经过UserDetailsCache缓存，重复登录和不存在的用户名都不会反复访问数据库
+ * 
+ * 同时实现UserDetailsPasswordService：登录成功后，如果存储的哈希代价低于当前目标代价，
+ * Spring Security会用明文密码重新哈希并通过这里保存
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserService userService;
+    private final UserDetailsCache userDetailsCache;
     
     @Autowired
-    public CustomUserDetailsService(UserService userService) {
+    public CustomUserDetailsService(UserService userService, UserDetailsCache userDetailsCache) {
         this.userService = userService;
+        this.userDetailsCache = userDetailsCache;
     }
     
     /**
@@ -35,11 +45,51 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userService.findByUsername(username);
+        User user = userDetailsCache.get(username, userService::findForAuthentication);
         if (user == null) {
             throw new UsernameNotFoundException("User not found with username: " + username);
         }
         
         return user;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 异步预加载用户
+     * 
+     * 用户不在缓存中时通过UserService的异步接口加载并放入缓存，
+     * 之后认证时的同步查询直接命中缓存，哈希线程不会阻塞在远程调用上。
+     * 远程用户源下UserDetailsCache不缓存，命中的是RemoteUserServiceImpl的近端缓存。
+     * 加载失败时结果仍然正常完成，认证时会再同步查询一次并报告错误。
+     * 
+     * @param username 用户名
+     * @return 加载完成的通知
+     */
+    public CompletableFuture<Void> preload(String username) {
+        if (username == null || userDetailsCache.contains(username)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return userService.findForAuthenticationAsync(username)
+                .thenAccept(user -> userDetailsCache.put(username, user))
+                .exceptionally(e -> null);
+    }
+    
+    /**
+     * 保存重新哈希后的密码
+     * 
+     * 传入的user可能是缓存中的副本，这里重新查询实体后再保存，
+     * 保存时UserService会使该用户的缓存失效
+     * 
+     * @param user 当前认证的用户
+     * @param newPassword 已编码的新密码
+     * @return 更新后的用户详情
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = userService.findByUsername(user.getUsername());
+        if (entity == null) {
+            return user;
+        }
+        entity.setPassword(newPassword);
+        return userService.save(entity);
+    }
+}
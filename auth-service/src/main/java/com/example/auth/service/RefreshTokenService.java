@@ -0,0 +1,112 @@
+package com.example.auth.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 刷新令牌服务
+ *
+ * 登录成功后除了短期的访问令牌，还会颁发一个长期有效的不透明刷新令牌。
+ * 访问令牌过期后，客户端用刷新令牌调用 /auth/refresh 换取新的访问令牌，
+ * 整个过程不需要BCrypt校验，长会话的客户端不必反复登录。
+ *
+ * 刷新令牌每次使用后立即作废并颁发新的令牌（轮换），被窃取的旧令牌无法重复使用。
+ * 退出登录（/auth/revoke）时客户端提交的刷新令牌同样被作废；用户修改密码后，
+ * 该用户的所有刷新令牌都会失效。存储中只保存令牌的SHA-256摘要。
+ */
+@Service
+public class RefreshTokenService {
+
+    /**
+     * 刷新令牌的随机字节数
+     */
+    private static final int TOKEN_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * 每个线程复用一个SHA-256摘要实例，MessageDigest本身不是线程安全的
+     */
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final RefreshTokenStore refreshTokenStore;
+
+    /**
+     * 刷新令牌有效期（毫秒）
+     */
+    private final long ttlMillis;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenStore refreshTokenStore,
+                               @Value("${auth.refresh-token.ttl:2592000}") long ttlSeconds) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 为用户颁发新的刷新令牌
+     *
+     * @param username 用户名
+     * @return 刷新令牌
+     */
+    public String issue(String username) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = ENCODER.encodeToString(bytes);
+        refreshTokenStore.save(hash(token), username, System.currentTimeMillis() + ttlMillis);
+        return token;
+    }
+
+    /**
+     * 使用刷新令牌
+     *
+     * 令牌使用后立即作废，调用方应为用户颁发新的刷新令牌
+     *
+     * @param token 刷新令牌
+     * @return 令牌所属的用户名；令牌无效、已使用或已过期时返回null
+     */
+    public String consume(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        return refreshTokenStore.consume(hash(token), System.currentTimeMillis());
+    }
+
+    /**
+     * 作废用户的所有刷新令牌
+     *
+     * @param username 用户名
+     * @return 作废的令牌数
+     */
+    public int revokeAll(String username) {
+        return refreshTokenStore.revokeAll(username);
+    }
+
+    /**
+     * 定期清理已过期的刷新令牌
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh-token.purge-interval:3600000}")
+    public void purgeExpired() {
+        refreshTokenStore.purgeExpired(System.currentTimeMillis());
+    }
+
+    private static byte[] hash(String token) {
+        return SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.auth.service;
+
+/**
+ * 刷新令牌存储接口
+ * 
+ * 以令牌的SHA-256摘要为键保存刷新令牌的归属用户和过期时间。
+ * 默认使用内存存储，配置 auth.refresh-token.store=database 时改用数据库存储，
+ * 服务重启后刷新令牌仍然有效。
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * 保存刷新令牌
+     * 
+     * @param tokenHash 令牌的SHA-256摘要
+     * @param username 用户名
+     * @param expiresAt 过期时间（毫秒时间戳）
+     */
+    void save(byte[] tokenHash, String username, long expiresAt);
+
+    /**
+     * 使用刷新令牌
+     * 
+     * 原子地删除并返回令牌记录，同一个令牌只能成功使用一次
+     * 
+     * @param tokenHash 令牌的SHA-256摘要
+     * @param now 当前时间（毫秒时间戳）
+     * @return 令牌所属的用户名；令牌不存在或已过期时返回null
+     */
+    String consume(byte[] tokenHash, long now);
+
+    /**
+     * 删除用户的所有刷新令牌
+     * 
+     * 用户修改密码后调用，之前颁发的刷新令牌全部失效
+     * 
+     * @param username 用户名
+     * @return 删除的令牌数
+     */
+    int revokeAll(String username);
+
+    /**
+     * 删除已过期的刷新令牌
+     * 
+     * @param now 当前时间（毫秒时间戳）
+     */
+    void purgeExpired(long now);
+}
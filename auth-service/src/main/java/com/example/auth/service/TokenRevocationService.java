@@ -0,0 +1,86 @@
+package com.example.auth.service;
+
+import com.example.auth.entity.RevokedToken;
+import com.example.auth.repository.RevokedTokenRepository;
+import com.example.common.entity.RevocationBatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 令牌吊销服务
+ *
+ * 负责记录被吊销的令牌ID(jti)，并为网关提供按序号增量拉取的接口。
+ * 网关在本地维护吊销列表，请求路径上不需要访问认证服务。
+ */
+@Service
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    /**
+     * 吊销令牌
+     *
+     * 重复吊销同一个令牌是幂等的
+     *
+     * @param jti 令牌ID
+     * @param expiresAt 令牌原本的过期时间（毫秒时间戳）
+     */
+    public void revoke(String jti, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis() || revokedTokenRepository.existsByJti(jti)) {
+            return;  // 已过期或已吊销的令牌无需再记录
+        }
+        try {
+            revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        } catch (DataIntegrityViolationException e) {
+            // 并发吊销同一个令牌时唯一约束冲突，说明已经记录过
+        }
+    }
+
+    /**
+     * 查询指定序号之后的吊销记录
+     *
+     * 序号是插入时分配的自增ID，并发吊销时可能不按序号顺序提交，
+     * 网关每次同步会回退一段序号重读，以补上晚提交的记录
+     *
+     * @param after 起始序号（不包含）
+     * @param limit 单批最大数量
+     * @return 增量数据
+     */
+    public RevocationBatch changesSince(long after, int limit) {
+        List<RevokedToken> tokens = revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(
+                after, PageRequest.of(0, limit));
+        if (tokens.isEmpty()) {
+            // 没有新数据时返回当前最大序号，客户端据此判断服务端数据是否被重置
+            RevokedToken latest = revokedTokenRepository.findTopByOrderByIdDesc();
+            long latestId = latest != null ? latest.getId() : 0L;
+            return new RevocationBatch(Math.min(after, latestId), new ArrayList<>());
+        }
+
+        List<RevocationBatch.Entry> entries = new ArrayList<>(tokens.size());
+        for (RevokedToken token : tokens) {
+            entries.add(new RevocationBatch.Entry(token.getJti(), token.getExpiresAt()));
+        }
+        return new RevocationBatch(tokens.get(tokens.size() - 1).getId(), entries);
+    }
+
+    /**
+     * 定期清理原本就已过期的吊销记录
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        revokedTokenRepository.deleteByExpiresAtLessThan(System.currentTimeMillis());
+    }
+}
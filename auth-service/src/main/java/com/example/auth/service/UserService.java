@@ -2,6 +2,8 @@ package com.example.auth.service;
 
 import com.example.auth.entity.User;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 用户服务接口
  * 
@@ -18,6 +20,31 @@ public interface UserService {
      */
     User findByUsername(String username);
     
+    /**
+     * 通过用户名查找认证所需的用户信息
+     * 
+     * 登录路径专用，返回的用户只保证包含ID、用户名、密码哈希、启用状态和角色，
+     * 不能用于修改后保存。默认实现与findByUsername相同
+     * 
+     * @param username 用户名
+     * @return 找到的用户，如果不存在则返回null
+     */
+    default User findForAuthentication(String username) {
+        return findByUsername(username);
+    }
+    
+    /**
+     * 异步查找认证所需的用户信息
+     * 
+     * 默认实现直接同步查询；远程实现会把调用放到独立的线程池，不阻塞调用线程
+     * 
+     * @param username 用户名
+     * @return 找到的用户，如果不存在则结果为null
+     */
+    default CompletableFuture<User> findForAuthenticationAsync(String username) {
+        return CompletableFuture.completedFuture(findForAuthentication(username));
+    }
+    
     /**
      * 保存或更新用户信息
      * 
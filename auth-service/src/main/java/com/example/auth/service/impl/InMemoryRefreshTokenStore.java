@@ -0,0 +1,107 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.service.RefreshTokenStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 刷新令牌存储实现类 - 内存方式
+ * 
+ * 键只保留摘要的前128位（两个long），值只保留用户名和过期时间，
+ * 每个令牌占用的内存很小。服务重启后所有刷新令牌失效，用户需要重新登录。
+ */
+@Service
+@ConditionalOnProperty(name = "auth.refresh-token.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private final ConcurrentHashMap<Key, Entry> tokens = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(byte[] tokenHash, String username, long expiresAt) {
+        tokens.put(Key.of(tokenHash), new Entry(username, expiresAt));
+    }
+
+    @Override
+    public String consume(byte[] tokenHash, long now) {
+        Entry entry = tokens.remove(Key.of(tokenHash));
+        if (entry == null || entry.expiresAt <= now) {
+            return null;
+        }
+        return entry.username;
+    }
+
+    /**
+     * 遍历所有令牌删除该用户的令牌；修改密码远比刷新令牌少，不单独维护按用户的索引
+     */
+    @Override
+    public int revokeAll(String username) {
+        int[] removed = new int[1];
+        tokens.values().removeIf(entry -> {
+            if (entry.username.equals(username)) {
+                removed[0]++;
+                return true;
+            }
+            return false;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public void purgeExpired(long now) {
+        tokens.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    /**
+     * 令牌摘要的前128位
+     */
+    private static final class Key {
+        private final long high;
+        private final long low;
+
+        private Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        static Key of(byte[] hash) {
+            return new Key(toLong(hash, 0), toLong(hash, 8));
+        }
+
+        private static long toLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (bytes[i] & 0xFF);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (high ^ (high >>> 32));
+        }
+    }
+
+    private static final class Entry {
+        private final String username;
+        private final long expiresAt;
+
+        private Entry(String username, long expiresAt) {
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.auth.service.impl;
+
+import com.example.auth.entity.RefreshToken;
+import com.example.auth.repository.RefreshTokenRepository;
+import com.example.auth.service.RefreshTokenStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Base64;
+
+/**
+ * 刷新令牌存储实现类 - 数据库方式
+ * 
+ * 通过JPA Repository把刷新令牌保存到数据库（默认为H2），服务重启后刷新令牌仍然有效
+ */
+@Service
+@ConditionalOnProperty(name = "auth.refresh-token.store", havingValue = "database")
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    public JpaRefreshTokenStore(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    @Override
+    public void save(byte[] tokenHash, String username, long expiresAt) {
+        refreshTokenRepository.save(new RefreshToken(encode(tokenHash), username, expiresAt));
+    }
+
+    @Override
+    public String consume(byte[] tokenHash, long now) {
+        String hash = encode(tokenHash);
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash);
+        // 删除成功才算使用成功，并发使用同一个令牌时只有一个请求能拿到新令牌
+        if (token == null || refreshTokenRepository.deleteByTokenHash(hash) != 1) {
+            return null;
+        }
+        return token.getExpiresAt() > now ? token.getUsername() : null;
+    }
+
+    @Override
+    public int revokeAll(String username) {
+        return refreshTokenRepository.deleteByUsername(username);
+    }
+
+    @Override
+    public void purgeExpired(long now) {
+        refreshTokenRepository.deleteByExpiresAtLessThan(now);
+    }
+
+    private static String encode(byte[] tokenHash) {
+        return Base64.getEncoder().encodeToString(tokenHash);
+    }
+}
@@ -1,16 +1,35 @@
 package com.example.auth.service.impl;
 
+import com.example.auth.config.RemoteUserSourceProperties;
 import com.example.auth.entity.User;
 import com.example.auth.feign.UserFeignClient;
+import com.example.auth.service.RefreshTokenService;
 import com.example.auth.service.UserService;
 import com.example.common.entity.Result;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-// import org.springframework.context.annotation.Primary;
-// import org.springframework.stereotype.Service;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * 用户服务实现类 - 远程服务调用方式
@@ -18,40 +37,108 @@ import java.util.Map;
  * 通过Feign调用用户服务获取用户信息
  * 这种方式适合于微服务架构，认证服务和用户数据分离的情况
  * 
- * 使用@Primary注解使其成为首选的实现类
+ * 配置 auth.user-source=remote 时启用，并通过@Primary取代数据库方式。
+ * 远程调用的保护措施：
+ * 1. 近端缓存：条目在 cache-ttl 内直接返回；超过后读取仍立即返回旧值，同时在后台刷新
+ *    （stale-while-revalidate），刷新失败时继续使用旧值，直到 max-stale
+ * 2. 舱壁：远程调用在有界线程池中执行，用户服务变慢时最多占用固定数量的线程，队列满立即失败
+ * 3. 超时：每次调用最多等待 timeout
+ * 4. 断路器：失败率或慢调用比例过高时打开，期间直接失败，不再访问用户服务
+ * 
+ * {@link #findForAuthenticationAsync(String)} 不阻塞调用线程，登录接口用它预加载用户，
+ * 之后在哈希线程上的同步查询会直接命中缓存。
  */
-// @Service
-// @Primary
-@Qualifier("remoteUserService")
-public class RemoteUserServiceImpl implements UserService {
+@Service
+@Primary
+@ConditionalOnProperty(name = "auth.user-source", havingValue = "remote")
+public class RemoteUserServiceImpl implements UserService, DisposableBean {
+
+    private static final String NAME = "user-service";
 
     private final UserFeignClient userFeignClient;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolBulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+    private final ScheduledExecutorService timeoutScheduler;
+    private final AsyncLoadingCache<String, Optional<User>> cache;
     
     @Autowired
-    public RemoteUserServiceImpl(UserFeignClient userFeignClient, PasswordEncoder passwordEncoder) {
+    public RemoteUserServiceImpl(UserFeignClient userFeignClient, PasswordEncoder passwordEncoder,
+                                 RefreshTokenService refreshTokenService,
+                                 RemoteUserSourceProperties properties, MeterRegistry meterRegistry) {
         this.userFeignClient = userFeignClient;
         this.passwordEncoder = passwordEncoder;
+        this.refreshTokenService = refreshTokenService;
+        this.circuitBreaker = CircuitBreaker.of(NAME, CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallThreshold())
+                .waitDurationInOpenState(properties.getWaitInOpenState())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .ignoreExceptions(BulkheadFullException.class)  // 本地排队已满不代表用户服务故障
+                .build());
+        this.bulkhead = ThreadPoolBulkhead.of(NAME, ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(properties.getBulkheadThreads())
+                .maxThreadPoolSize(properties.getBulkheadThreads())
+                .queueCapacity(properties.getBulkheadQueueCapacity())
+                .build());
+        this.timeLimiter = TimeLimiter.of(TimeLimiterConfig.custom()
+                .timeoutDuration(properties.getTimeout())
+                .cancelRunningFuture(true)
+                .build());
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "remote-user-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .refreshAfterWrite(properties.getCacheTtl())
+                .expireAfterWrite(properties.getMaxStale())
+                .recordStats()
+                .buildAsync((username, executor) -> fetch(username));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "auth.remote-users");
+        Gauge.builder("auth.remote-user.circuit-breaker.state", circuitBreaker, cb -> cb.getState().getOrder())
+                .description("Circuit breaker state for user-service calls (0 closed, 1 open, 2 half-open)")
+                .register(meterRegistry);
     }
     
     @Override
     public User findByUsername(String username) {
-        Result<User> result = userFeignClient.getUserByUsername(username);
-        if (result.getCode() == 200 && result.getData() != null) {
-            return result.getData();
+        try {
+            return findForAuthenticationAsync(username).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
-        return null;
+    }
+
+    @Override
+    public CompletableFuture<User> findForAuthenticationAsync(String username) {
+        return cache.get(username).thenApply(user -> user.orElse(null));
     }
     
     @Override
     public User save(User user) {
         // 如果是新用户或密码已修改，需要对密码进行加密
-        if (user.getId() == null || (user.getPassword() != null && !user.getPassword().startsWith("$2a$"))) {
+        boolean passwordChanged = user.getId() != null
+                && user.getPassword() != null && !user.getPassword().startsWith("$2a$");
+        if (user.getId() == null || passwordChanged) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
         
-        Result<User> result = userFeignClient.saveUser(user);
+        Result<User> result = circuitBreaker.executeSupplier(() -> userFeignClient.saveUser(user));
+        cache.synchronous().invalidate(user.getUsername());
         if (result.getCode() == 200 && result.getData() != null) {
+            if (passwordChanged) {
+                refreshTokenService.revokeAll(user.getUsername());  // 修改密码后之前颁发的刷新令牌全部失效
+            }
             return result.getData();
         }
         
@@ -78,4 +165,38 @@ public class RemoteUserServiceImpl implements UserService {
         return result.getCode() == 200 && Boolean.TRUE.equals(result.getData());
         */
     }
-} 
\ No newline at end of file
+
+    /**
+     * 经过断路器、超时和舱壁保护的远程查询
+     *
+     * @param username 用户名
+     * @return 查询结果；用户不存在时为空
+     */
+    private CompletableFuture<Optional<User>> fetch(String username) {
+        return circuitBreaker.executeCompletionStage(() -> timeLimiter.executeCompletionStage(timeoutScheduler,
+                () -> bulkhead.executeSupplier(() -> lookup(username)))).toCompletableFuture();
+    }
+
+    /**
+     * 调用用户服务查询用户，在舱壁线程上执行
+     */
+    private Optional<User> lookup(String username) {
+        Result<User> result = userFeignClient.getUserByUsername(username);
+        if (result == null) {
+            throw new IllegalStateException("Empty response from user-service");
+        }
+        if (result.getCode() == 200) {
+            return Optional.ofNullable(result.getData());
+        }
+        if (result.getCode() == 404) {
+            return Optional.empty();
+        }
+        throw new IllegalStateException("user-service returned " + result.getCode() + ": " + result.getMessage());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        timeoutScheduler.shutdownNow();
+        bulkhead.close();
+    }
+}
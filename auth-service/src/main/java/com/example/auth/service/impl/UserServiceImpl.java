@@ -1,7 +1,9 @@
 package com.example.auth.service.impl;
 
+import com.example.auth.cache.UserDetailsCache;
 import com.example.auth.entity.User;
 import com.example.auth.repository.UserRepository;
+import com.example.auth.service.RefreshTokenService;
 import com.example.auth.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -11,18 +13,24 @@ import org.springframework.stereotype.Service;
  * 用户服务实现类 - 数据库方式
  * 
  * 通过JPA Repository访问数据库中的用户信息
- * 实际项目中会有更复杂的业务逻辑和缓存策略
+ * 登录路径上的查询由UserDetailsCache缓存，保存用户时在这里使缓存失效；
+ * 已有用户修改密码时同时作废该用户的所有刷新令牌
  */
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final RefreshTokenService refreshTokenService;
     
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           UserDetailsCache userDetailsCache, RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsCache = userDetailsCache;
+        this.refreshTokenService = refreshTokenService;
     }
     
     @Override
@@ -30,18 +38,44 @@ public class UserServiceImpl implements UserService {
         return userRepository.findByUsername(username);
     }
     
+    /**
+     * 登录路径使用单条连接查询的投影，不加载实体，也不触发角色集合的第二次查询
+     */
+    @Override
+    public User findForAuthentication(String username) {
+        return userRepository.findForAuthentication(username);
+    }
+    
     @Override
     public User save(User user) {
         // 如果是新用户或密码已修改，需要对密码进行加密
-        if (user.getId() == null || (user.getPassword() != null && !user.getPassword().startsWith("$2a$"))) {
+        boolean passwordChanged = user.getId() != null
+                && user.getPassword() != null && !user.getPassword().startsWith("$2a$");
+        if (user.getId() == null || passwordChanged) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
-        return userRepository.save(user);
+        // 修改用户名时旧用户名的缓存也要失效
+        String previousUsername = user.getId() != null
+                ? userRepository.findById(user.getId()).map(User::getUsername).orElse(null)
+                : null;
+        User saved = userRepository.save(user);
+        userDetailsCache.invalidate(saved.getUsername());
+        if (previousUsername != null && !previousUsername.equals(saved.getUsername())) {
+            userDetailsCache.invalidate(previousUsername);
+        }
+        if (passwordChanged) {
+            // 刷新令牌按用户名保存，改名前颁发的令牌也要作废
+            refreshTokenService.revokeAll(saved.getUsername());
+            if (previousUsername != null && !previousUsername.equals(saved.getUsername())) {
+                refreshTokenService.revokeAll(previousUsername);
+            }
+        }
+        return saved;
     }
     
     @Override
     public boolean validateCredentials(String username, String password) {
-        User user = findByUsername(username);
+        User user = findForAuthentication(username);
         if (user == null) {
             return false;
         }
@@ -0,0 +1,80 @@
+package com.example.auth.throttle;
+
+import com.example.auth.config.LoginThrottleProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LoginThrottle单元测试
+ *
+ * 验证IP维度统计所有尝试、用户名维度只统计失败，以及攻击者的失败不会锁住其他IP上的同一账号
+ */
+class LoginThrottleTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginThrottle throttle(int usernameLimit, int ipLimit) {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setUsername(new LoginThrottleProperties.Rule(usernameLimit, Duration.ofMinutes(1)));
+        properties.setIp(new LoginThrottleProperties.Rule(ipLimit, Duration.ofMinutes(1)));
+        properties.setStripes(1024);
+        return new LoginThrottle(properties, meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("auth.login-throttle.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void successfulLoginsDoNotCountTowardsTheUsernameLimit() {
+        LoginThrottle throttle = throttle(3, 100);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0L, throttle.check("alice", "192.168.1.10"));
+        }
+        assertEquals(20.0, count("allowed"));
+    }
+
+    @Test
+    void failedLoginsBlockTheUsernameOnlyFromThatIp() {
+        LoginThrottle throttle = throttle(3, 100);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, throttle.check("alice", "10.0.0.1"));
+            throttle.recordFailure("alice", "10.0.0.1");
+        }
+
+        assertTrue(throttle.check("alice", "10.0.0.1") > 0);
+        assertEquals(0L, throttle.check("alice", "192.168.1.10"));
+        assertEquals(0L, throttle.check("bob", "10.0.0.1"));
+        assertEquals(1.0, count("throttled_username"));
+    }
+
+    @Test
+    void everyAttemptCountsTowardsTheIpLimit() {
+        LoginThrottle throttle = throttle(100, 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, throttle.check("user" + i, "10.0.0.1"));
+        }
+
+        assertTrue(throttle.check("user5", "10.0.0.1") > 0);
+        assertEquals(0L, throttle.check("user5", "10.0.0.2"));
+        assertEquals(1.0, count("throttled_ip"));
+    }
+
+    @Test
+    void disabledThrottleAllowsEverything() {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setEnabled(false);
+        properties.setIp(new LoginThrottleProperties.Rule(1, Duration.ofMinutes(1)));
+        LoginThrottle throttle = new LoginThrottle(properties, meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0L, throttle.check("alice", "10.0.0.1"));
+            throttle.recordFailure("alice", "10.0.0.1");
+        }
+    }
+}
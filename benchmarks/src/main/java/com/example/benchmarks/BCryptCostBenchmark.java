@@ -0,0 +1,66 @@
+package com.example.benchmarks;
+
+import com.example.common.security.AdaptiveBCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt代价基准测试
+ *
+ * 报告当前机器上各代价的单次哈希和校验耗时，用于确定 password-hashing.target-latency
+ * 对应的代价，也可以与服务启动日志中校准出的代价相互印证。
+ * 代价每加1耗时翻倍，高代价的迭代次数较少。
+ *
+ * 用法示例:
+ * java -jar benchmarks/target/benchmarks.jar BCryptCostBenchmark -p cost=10,12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class BCryptCostBenchmark {
+
+    private static final String PASSWORD = "password";
+
+    @Param({"8", "10", "11", "12", "13", "14"})
+    public int cost;
+
+    private AdaptiveBCryptPasswordEncoder encoder;
+
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        encoder = new AdaptiveBCryptPasswordEncoder(cost);
+        encoded = encoder.encode(PASSWORD);
+    }
+
+    /**
+     * 注册和重新哈希时的开销
+     */
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    /**
+     * 登录时的开销
+     */
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, encoded);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试启动入口
+ *
+ * 与 org.openjdk.jmh.Main 接受相同的命令行参数，额外默认启用GC分析器，
+ * 使每个基准测试在吞吐量和延迟之外同时报告分配速率（gc.alloc.rate.norm）。
+ *
+ * 用法示例:
+ * java -jar benchmarks/target/benchmarks.jar JwtUtilBenchmark -rf json -rff result.json
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.benchmarks;
+
+import com.example.common.security.InternalClaimsCodec;
+import com.example.common.util.JwtUtil;
+import com.example.gateway.cache.VerifiedTokenCache;
+import com.example.gateway.config.WhitelistProperties;
+import com.example.gateway.filter.JwtAuthFilter;
+import com.example.gateway.revocation.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关JwtAuthFilter端到端基准测试
+ *
+ * 使用MockServerWebExchange模拟请求，过滤器链为空操作，只测量过滤器本身的开销。
+ * 分别覆盖白名单路径、令牌缓存命中和令牌缓存未命中（每次都校验签名）三种情况。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    /**
+     * 空操作过滤器链
+     */
+    private static final GatewayFilterChain NOOP_CHAIN = exchange -> Mono.empty();
+
+    /**
+     * 启用令牌缓存的过滤器
+     */
+    private JwtAuthFilter cachingFilter;
+
+    /**
+     * 缓存存活时间为0的过滤器，每个请求都会重新校验签名
+     */
+    private JwtAuthFilter uncachedFilter;
+
+    private ServerWebExchange authorizedExchange;
+
+    private ServerWebExchange whitelistedExchange;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(JwtUtilBenchmark.SECRET, 86400L);
+        String token = jwtUtil.generateToken("user", 1L, Collections.singletonList("USER"));
+        WhitelistProperties whitelist = new WhitelistProperties();
+        TokenRevocationList revocationList = new TokenRevocationList(new SimpleMeterRegistry(), 100000, 0.01);
+
+        InternalClaimsCodec internalClaimsCodec = new InternalClaimsCodec("internalSecret");
+
+        cachingFilter = new JwtAuthFilter(jwtUtil, new VerifiedTokenCache(new SimpleMeterRegistry(), 100000, 300),
+                revocationList, whitelist, internalClaimsCodec);
+        uncachedFilter = new JwtAuthFilter(jwtUtil, new VerifiedTokenCache(new SimpleMeterRegistry(), 100000, 0),
+                revocationList, whitelist, internalClaimsCodec);
+
+        // 过滤器只会基于原始交换对象创建副本，不会修改它，因此可以在多次调用间复用
+        authorizedExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/1")
+                .header("Authorization", "Bearer " + token));
+        whitelistedExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+    }
+
+    @Benchmark
+    public Void whitelistedPath() {
+        return cachingFilter.filter(whitelistedExchange, NOOP_CHAIN).block();
+    }
+
+    @Benchmark
+    public Void cachedToken() {
+        return cachingFilter.filter(authorizedExchange, NOOP_CHAIN).block();
+    }
+
+    @Benchmark
+    public Void uncachedToken() {
+        return uncachedFilter.filter(authorizedExchange, NOOP_CHAIN).block();
+    }
+}
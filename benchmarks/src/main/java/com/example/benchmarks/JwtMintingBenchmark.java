@@ -0,0 +1,100 @@
+package com.example.benchmarks;
+
+import com.example.common.util.JwtUtil;
+import com.example.common.util.VerifiedClaims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌签发基准测试
+ *
+ * 对比jjwt构建器签发（JwtUtil原来的实现）与JwtUtil当前的快速签发路径，
+ * 两者写入相同的声明（sub、jti、iat、exp、uid、roles）。
+ * 通过BenchmarkRunner运行时会同时报告每次签发分配的字节数（gc.alloc.rate.norm）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtMintingBenchmark {
+
+    private static final Long USER_ID = 42L;
+
+    private static final List<String> ROLES = Arrays.asList("USER", "ADMIN");
+
+    private static final long EXPIRATION_SECONDS = 900L;
+
+    private JwtUtil jwtUtil;
+
+    private SecretKey signingKey;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(JwtUtilBenchmark.SECRET, EXPIRATION_SECONDS);
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(JwtUtilBenchmark.SECRET),
+                SignatureAlgorithm.HS256.getJcaName());
+
+        // 两种方式签发的令牌都必须能被jjwt验证，且声明一致
+        VerifiedClaims fast = jwtUtil.verify(jwtUtil.generateToken("user", USER_ID, ROLES));
+        VerifiedClaims reference = jwtUtil.verify(jjwt());
+        if (!fast.getSubject().equals(reference.getSubject())
+                || !fast.getUserId().equals(reference.getUserId())
+                || !fast.getRoles().equals(reference.getRoles())) {
+            throw new IllegalStateException("Minted token claims differ from jjwt: " + fast.getRoles());
+        }
+    }
+
+    /**
+     * JwtUtil原来的签发方式：jjwt构建器
+     */
+    @Benchmark
+    public String jjwt() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject("user")
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION_SECONDS * 1000))
+                .claim(VerifiedClaims.USER_ID_CLAIM, USER_ID)
+                .claim(VerifiedClaims.ROLES_CLAIM, new ArrayList<>(ROLES))
+                .signWith(SignatureAlgorithm.HS256, signingKey)
+                .compact();
+    }
+
+    @Benchmark
+    public String minter() {
+        return jwtUtil.generateToken("user", USER_ID, ROLES);
+    }
+
+    /**
+     * 登录高峰时多个线程同时签发，检查线程私有状态没有引入竞争
+     */
+    @Benchmark
+    @Threads(4)
+    public String minterContended() {
+        return jwtUtil.generateToken("user", USER_ID, ROLES);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.benchmarks;
+
+import com.example.common.util.JwtUtil;
+import com.example.common.util.VerifiedClaims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil基准测试
+ *
+ * 覆盖令牌签发、按旧接口分别提取用户名和过期时间，以及单次解析的verify接口，
+ * 便于对比每次请求在JWT处理上的CPU和内存开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    /**
+     * 与各服务配置文件中一致的测试密钥
+     */
+    static final String SECRET = "mySecretKey";
+
+    private JwtUtil jwtUtil;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 86400L);
+        token = jwtUtil.generateToken("user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("user");
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean isTokenExpired() {
+        return jwtUtil.isTokenExpired(token);
+    }
+
+    /**
+     * 网关在引入verify之前的验证方式：两次完整解析
+     */
+    @Benchmark
+    public boolean extractUsernameAndCheckExpiry() {
+        return jwtUtil.extractUsername(token) != null && !jwtUtil.isTokenExpired(token);
+    }
+
+    @Benchmark
+    public VerifiedClaims verify() {
+        return jwtUtil.verify(token);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.benchmarks;
+
+import com.example.common.loadbalancer.LatencyAwareLoadBalancer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 负载均衡策略的本地多实例模拟
+ *
+ * 在虚拟时钟上做离散事件模拟，比较默认的轮询策略与LatencyAwareLoadBalancer的尾延迟：
+ * 5个实例，每个实例有8个处理线程，服务时间服从指数分布，其中一个实例比其他实例慢5倍；
+ * 请求按泊松过程到达。每种策略使用相同的随机种子，输出p50/p99/p999以及慢实例分到的请求比例。
+ *
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.example.benchmarks.LoadBalancerSimulation
+ */
+public class LoadBalancerSimulation {
+
+    private static final String SERVICE_ID = "user-service";
+
+    private static final int INSTANCES = 5;
+
+    private static final int WORKERS_PER_INSTANCE = 8;
+
+    /**
+     * 正常实例的平均服务时间（毫秒），最后一个实例慢 SLOW_FACTOR 倍
+     */
+    private static final double MEAN_SERVICE_MILLIS = 10;
+
+    private static final double SLOW_FACTOR = 5;
+
+    /**
+     * 每秒到达的请求数
+     */
+    private static final double ARRIVALS_PER_SECOND = 600;
+
+    private static final int REQUESTS = 200_000;
+
+    private static final long SEED = 42L;
+
+    public static void main(String[] args) {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            instances.add(new DefaultServiceInstance(SERVICE_ID + "-" + i, SERVICE_ID, "10.0.0." + (i + 1), 8081, false));
+        }
+        ObjectProvider<ServiceInstanceListSupplier> supplier = provider(instances);
+
+        VirtualClock clock = new VirtualClock();
+        print("round-robin", new Simulation(instances, clock).run(new RoundRobinLoadBalancer(supplier, SERVICE_ID), null));
+
+        clock = new VirtualClock();
+        LatencyAwareLoadBalancer latencyAware = new LatencyAwareLoadBalancer(supplier, SERVICE_ID,
+                TimeUnit.SECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(1), clock);
+        print("latency-aware", new Simulation(instances, clock).run(latencyAware, latencyAware));
+    }
+
+    private static ObjectProvider<ServiceInstanceListSupplier> provider(List<ServiceInstance> instances) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("serviceInstanceListSupplier", new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE_ID;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances);
+            }
+        });
+        return beanFactory.getBeanProvider(ServiceInstanceListSupplier.class);
+    }
+
+    private static void print(String name, Result result) {
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("%-14s p50=%7.2fms  p99=%8.2fms  p999=%8.2fms  slow-instance-share=%5.1f%%%n",
+                name,
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                100.0 * result.slowRequests / latencies.length);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * 虚拟纳秒时钟
+     */
+    private static final class VirtualClock implements LongSupplier {
+        private long now;
+
+        @Override
+        public long getAsLong() {
+            return now;
+        }
+    }
+
+    /**
+     * 模拟结果
+     */
+    private static final class Result {
+        private final long[] latencies;
+        private final int slowRequests;
+
+        private Result(long[] latencies, int slowRequests) {
+            this.latencies = latencies;
+            this.slowRequests = slowRequests;
+        }
+    }
+
+    /**
+     * 一次请求完成事件
+     */
+    private static final class Completion implements Comparable<Completion> {
+        private final long time;
+        private final Request<Object> request;
+        private final Response<ServiceInstance> response;
+
+        private Completion(long time, Request<Object> request, Response<ServiceInstance> response) {
+            this.time = time;
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public int compareTo(Completion other) {
+            return Long.compare(time, other.time);
+        }
+    }
+
+    /**
+     * 一次模拟运行
+     */
+    private static final class Simulation {
+        private final List<ServiceInstance> instances;
+        private final VirtualClock clock;
+        private final Random random = new Random(SEED);
+
+        /**
+         * 每个实例每个处理线程的空闲时刻
+         */
+        private final long[][] workerFreeAt = new long[INSTANCES][WORKERS_PER_INSTANCE];
+
+        private Simulation(List<ServiceInstance> instances, VirtualClock clock) {
+            this.instances = instances;
+            this.clock = clock;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Result run(ReactorServiceInstanceLoadBalancer loadBalancer, LoadBalancerLifecycle lifecycle) {
+            PriorityQueue<Completion> completions = new PriorityQueue<>();
+            long[] latencies = new long[REQUESTS];
+            int slowRequests = 0;
+            double meanInterArrivalNanos = TimeUnit.SECONDS.toNanos(1) / ARRIVALS_PER_SECOND;
+            long arrival = 0L;
+
+            for (int i = 0; i < REQUESTS; i++) {
+                arrival += (long) exponential(meanInterArrivalNanos);
+                // 先按时间顺序处理到达之前完成的请求，负载均衡器才能看到正确的进行中请求数
+                while (!completions.isEmpty() && completions.peek().time <= arrival) {
+                    Completion done = completions.poll();
+                    clock.now = done.time;
+                    if (lifecycle != null) {
+                        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS,
+                                done.request, done.response));
+                    }
+                }
+                clock.now = arrival;
+
+                Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+                Response<ServiceInstance> response = loadBalancer.choose(request).block();
+                if (lifecycle != null) {
+                    lifecycle.onStartRequest(request, response);
+                }
+                int index = instances.indexOf(response.getServer());
+                boolean slow = index == INSTANCES - 1;
+                if (slow) {
+                    slowRequests++;
+                }
+
+                double meanService = TimeUnit.MILLISECONDS.toNanos(1) * MEAN_SERVICE_MILLIS * (slow ? SLOW_FACTOR : 1);
+                long finish = schedule(index, arrival, (long) exponential(meanService));
+                latencies[i] = finish - arrival;
+                completions.add(new Completion(finish, request, response));
+            }
+            return new Result(latencies, slowRequests);
+        }
+
+        /**
+         * 把请求交给实例中最早空闲的处理线程，返回完成时刻
+         */
+        private long schedule(int instance, long arrival, long serviceNanos) {
+            long[] workers = workerFreeAt[instance];
+            int earliest = 0;
+            for (int w = 1; w < workers.length; w++) {
+                if (workers[w] < workers[earliest]) {
+                    earliest = w;
+                }
+            }
+            long start = Math.max(arrival, workers[earliest]);
+            workers[earliest] = start + serviceNanos;
+            return workers[earliest];
+        }
+
+        private double exponential(double mean) {
+            return -mean * Math.log(1 - random.nextDouble());
+        }
+    }
+}
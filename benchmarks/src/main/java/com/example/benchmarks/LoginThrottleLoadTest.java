@@ -0,0 +1,197 @@
+package com.example.benchmarks;
+
+import com.example.common.ratelimit.SlidingWindowThrottle;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录节流负载测试
+ *
+ * 模拟认证服务的登录路径：与生产配置一致，BCrypt校验在线程数等于CPU核数、队列有界的线程池上执行，
+ * 队列满时直接拒绝。分两轮运行，先不启用节流，再启用与LoginThrottle相同的 {@link SlidingWindowThrottle}
+ * （按IP统计尝试次数，按用户名+IP统计失败次数）：
+ * 撞库线程从少量IP持续用随机用户名登录，同时有正常用户以固定间隔登录。
+ * 输出正常用户登录延迟的p50/p99/最大值和被拒绝的次数，以及攻击请求中真正消耗了哈希计算的比例。
+ * 启用节流后，攻击流量在进入线程池之前被拒绝，正常用户的延迟应接近无攻击时的单次哈希耗时。
+ * 启用节流的一轮中如果有正常用户登录失败，或者攻击请求消耗的哈希次数超过各IP的限额之和，以非0状态退出。
+ * 节流的计数语义由单元测试LoginThrottleTest和SlidingWindowThrottleTest覆盖。
+ *
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.example.benchmarks.LoginThrottleLoadTest
+ */
+public class LoginThrottleLoadTest {
+
+    /**
+     * 测试使用较低的BCrypt代价，缩短运行时间；节流的效果与代价无关
+     */
+    private static final int BCRYPT_COST = 8;
+
+    private static final int HASH_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final int QUEUE_CAPACITY = 32;
+
+    private static final int ATTACK_THREADS = HASH_THREADS * 4;
+
+    private static final int ATTACK_IPS = 8;
+
+    private static final int LEGIT_USERS = 50;
+
+    private static final long LEGIT_INTERVAL_MILLIS = 20;
+
+    private static final long PHASE_MILLIS = 10_000;
+
+    /**
+     * 与生产配置一致的每个IP每分钟尝试次数
+     */
+    private static final int IP_LIMIT = 30;
+
+    public static void main(String[] args) throws Exception {
+        String hash = BCrypt.hashpw("password", BCrypt.gensalt(BCRYPT_COST));
+        for (int i = 0; i < 20; i++) {
+            BCrypt.checkpw("password", hash);  // 预热
+        }
+        System.out.printf("hash threads=%d, queue=%d, attack threads=%d from %d IPs, %d legit users%n",
+                HASH_THREADS, QUEUE_CAPACITY, ATTACK_THREADS, ATTACK_IPS, LEGIT_USERS);
+        System.out.printf("%-12s %10s %10s %10s %12s %14s %14s%n",
+                "throttle", "p50(ms)", "p99(ms)", "max(ms)", "legit fail", "attack hashed", "attack total");
+        run("off", hash, null, null);
+        long window = TimeUnit.MINUTES.toNanos(1);
+        Phase throttled = run("on", hash,
+                new SlidingWindowThrottle(IP_LIMIT, window, TimeUnit.SECONDS.toNanos(1), TimeUnit.MINUTES.toNanos(5), 16384),
+                new SlidingWindowThrottle(10, window, TimeUnit.SECONDS.toNanos(1), TimeUnit.MINUTES.toNanos(5), 16384));
+
+        // 一轮不超过一个窗口，每个攻击IP最多通过IP_LIMIT次
+        long attackBudget = (long) ATTACK_IPS * IP_LIMIT;
+        if (throttled.legitFailed > 0 || throttled.attackHashed > attackBudget) {
+            System.out.printf("throttle on: FAILED, legit fail=%d (expected 0), attack hashed=%d (expected <= %d)%n",
+                    throttled.legitFailed, throttled.attackHashed, attackBudget);
+            System.exit(1);
+        }
+        System.out.println("throttle on: legit users unaffected, attack hashing bounded");
+    }
+
+    private static Phase run(String name, String hash, SlidingWindowThrottle byIp, SlidingWindowThrottle byUsername)
+            throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(HASH_THREADS, HASH_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), new ThreadPoolExecutor.AbortPolicy());
+        executor.prestartAllCoreThreads();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong attackTotal = new AtomicLong();
+        AtomicLong attackHashed = new AtomicLong();
+
+        List<Thread> attackers = new ArrayList<>();
+        for (int t = 0; t < ATTACK_THREADS; t++) {
+            Thread attacker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    String ip = "10.0.0." + random.nextInt(ATTACK_IPS);
+                    String username = "victim" + random.nextInt(1_000_000);
+                    attackTotal.incrementAndGet();
+                    if (!allowed(byIp, byUsername, ip, username)) {
+                        pause();  // 被拒绝的请求很快返回，攻击者随即发起下一次
+                        continue;
+                    }
+                    try {
+                        executor.submit(() -> BCrypt.checkpw("guess", hash)).get();
+                        attackHashed.incrementAndGet();
+                        if (byUsername != null) {
+                            byUsername.record(username + '\n' + ip);  // 猜测的密码都是错的
+                        }
+                    } catch (RejectedExecutionException e) {
+                        pause();  // 队列已满，随即重试
+                    } catch (Exception e) {
+                        return;
+                    }
+                }
+            });
+            attacker.setDaemon(true);
+            attackers.add(attacker);
+            attacker.start();
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        long legitFailed = 0;
+        long deadline = System.currentTimeMillis() + PHASE_MILLIS;
+        int sequence = 0;
+        while (System.currentTimeMillis() < deadline) {
+            int user = sequence++ % LEGIT_USERS;
+            long start = System.nanoTime();
+            if (!allowed(byIp, byUsername, "192.168.1." + user, "user" + user)) {
+                legitFailed++;
+            } else {
+                try {
+                    Future<Boolean> result = executor.submit(() -> BCrypt.checkpw("password", hash));
+                    result.get();
+                    latencies.add(System.nanoTime() - start);
+                } catch (RejectedExecutionException e) {
+                    legitFailed++;  // 生产环境中返回503
+                }
+            }
+            Thread.sleep(LEGIT_INTERVAL_MILLIS);
+        }
+
+        running.set(false);
+        for (Thread attacker : attackers) {
+            attacker.join();
+        }
+        executor.shutdown();
+
+        Collections.sort(latencies);
+        System.out.printf("%-12s %10.2f %10.2f %10.2f %12d %14d %14d%n", name,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0),
+                legitFailed, attackHashed.get(), attackTotal.get());
+        return new Phase(legitFailed, attackHashed.get());
+    }
+
+    private static boolean allowed(SlidingWindowThrottle byIp, SlidingWindowThrottle byUsername,
+                                   String ip, String username) {
+        if (byIp == null) {
+            return true;
+        }
+        return byIp.tryAcquire(ip) == 0 && byUsername.check(username + '\n' + ip) == 0;
+    }
+
+    /**
+     * 模拟一次网络往返，避免攻击线程空转占满CPU
+     */
+    private static void pause() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 一轮测试的结果
+     */
+    private static final class Phase {
+
+        private final long legitFailed;
+
+        private final long attackHashed;
+
+        private Phase(long legitFailed, long attackHashed) {
+            this.legitFailed = legitFailed;
+            this.attackHashed = attackHashed;
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return Double.NaN;
+        }
+        int index = Math.min(sorted.size() - 1, (int) Math.ceil(quantile * sorted.size()) - 1);
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.benchmarks;
+
+import com.example.gateway.config.RateLimitProperties;
+import com.example.gateway.filter.RateLimitFilter;
+import com.example.gateway.ratelimit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关本地限流基准测试
+ *
+ * 目标是每个请求的限流开销低于1微秒。分别测量：
+ * 1. 单个热点用户（所有线程竞争同一个令牌桶的CAS）
+ * 2. 一百万个用户随机访问（桶查找与淘汰的开销）
+ * 3. 经过RateLimitFilter的完整调用
+ * 令牌速率设置得足够大，测量的都是放行路径。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    /**
+     * 模拟的用户数量
+     */
+    private static final int USERS = 1_000_000;
+
+    /**
+     * 每秒补充的令牌数和桶容量，桶可以覆盖10秒的突发，测量期间基本不会耗尽
+     */
+    private static final double RATE = 100_000_000d;
+
+    private static final int BURST = 1_000_000_000;
+
+    /**
+     * 空操作过滤器链
+     */
+    private static final GatewayFilterChain NOOP_CHAIN = exchange -> Mono.empty();
+
+    private TokenBucketRateLimiter limiter;
+
+    private String[] users;
+
+    private RateLimitFilter filter;
+
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setUp() {
+        limiter = new TokenBucketRateLimiter(RATE, BURST, USERS);
+        users = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = "user" + i;
+            limiter.tryAcquire(users[i]);
+        }
+
+        RateLimitProperties.Route settings = new RateLimitProperties.Route();
+        settings.setReplenishRate(RATE);
+        settings.setBurstCapacity(BURST);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRoutes().put("user-service", settings);
+        filter = new RateLimitFilter(properties, new SimpleMeterRegistry());
+
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/1")
+                .header("X-User-Name", "user1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("user-service")
+                .uri("lb://user-service")
+                .predicate(e -> true)
+                .build());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long hotUser() {
+        return limiter.tryAcquire("user1");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long millionUsers() {
+        return limiter.tryAcquire(users[ThreadLocalRandom.current().nextInt(USERS)]);
+    }
+
+    @Benchmark
+    public Void filter() {
+        return filter.filter(exchange, NOOP_CHAIN).block();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.benchmarks;
+
+import com.example.user.entity.User;
+import com.example.user.entity.UserPage;
+import com.example.user.store.UserStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 用户搜索基准测试
+ *
+ * 对比原来的全表扫描（对用户名和邮箱逐个String.contains）与UserStore的排序搜索。
+ * 关键字覆盖几种典型情况：唯一匹配的完整用户名、匹配少量用户的片段、
+ * 匹配大量用户的短数字串、所有用户名都以它开头的前缀（走用户名跳表），
+ * 以及所有用户都匹配的邮箱域名（走三元组索引，最多核对UserStore.MAX_CANDIDATES个候选）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class UserSearchBenchmark {
+
+    private static final int LIMIT = 20;
+
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"user765432", "r76543", "1999", "user", "example"})
+    private String keyword;
+
+    private List<User> list;
+
+    private UserStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = new ArrayList<>(users);
+        store = new UserStore();
+        for (int i = 1; i <= users; i++) {
+            list.add(store.insert(new User(null, "user" + i, "password", "user" + i + "@example.com")));
+        }
+    }
+
+    /**
+     * 原实现：全表扫描
+     */
+    @Benchmark
+    public List<User> scan() {
+        return list.stream()
+                .filter(user ->
+                    user.getUsername().contains(keyword) ||
+                    (user.getEmail() != null && user.getEmail().contains(keyword)))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public UserPage index() {
+        return store.search(keyword, LIMIT, null);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.benchmarks;
+
+import com.example.user.entity.User;
+import com.example.user.entity.UserPage;
+import com.example.user.store.UserStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserStore基准测试
+ *
+ * 以100万用户对比原来的静态ArrayList实现（线性扫描查找、求max生成ID）和UserStore的哈希索引。
+ * 列表实现的每次查找都要扫描平均一半的列表，新增前要遍历整个列表求最大ID；
+ * UserStore的查找和新增与用户数无关。新增基准每次新增后立即删除，保持用户数不变。
+ * 列表基准对比一次返回全部用户与按游标取一页，通过BenchmarkRunner运行时可以看到每次请求分配的字节数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class UserStoreBenchmark {
+
+    @Param({"1000000"})
+    private int users;
+
+    private List<User> list;
+
+    private UserStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = new ArrayList<>(users);
+        store = new UserStore();
+        for (int i = 1; i <= users; i++) {
+            User user = store.insert(new User(null, "user" + i, "password", "user" + i + "@example.com"));
+            list.add(user);
+        }
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+
+    @Benchmark
+    public User listFindByUsername() {
+        String username = "user" + randomIndex();
+        return list.stream()
+                .filter(user -> user.getUsername().equals(username))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Benchmark
+    public User storeFindByUsername() {
+        return store.findByUsername("user" + randomIndex());
+    }
+
+    @Benchmark
+    public Optional<User> listFindById() {
+        Long id = (long) randomIndex();
+        return list.stream()
+                .filter(user -> user.getId().equals(id))
+                .findFirst();
+    }
+
+    @Benchmark
+    public Optional<User> storeFindById() {
+        return store.findById((long) randomIndex());
+    }
+
+    /**
+     * 原实现新增用户前生成ID的开销
+     */
+    @Benchmark
+    public long listNextId() {
+        return list.stream()
+                .mapToLong(User::getId)
+                .max()
+                .getAsLong() + 1;
+    }
+
+    @Benchmark
+    public boolean storeInsertAndDelete() {
+        User user = store.insert(new User(null, "bench" + System.nanoTime() + "-" + Thread.currentThread().getId(), "password", null));
+        return store.delete(user.getId());
+    }
+
+    /**
+     * 原来的GET /users：复制整个列表
+     */
+    @Benchmark
+    public List<User> listAll() {
+        return new ArrayList<>(list);
+    }
+
+    /**
+     * 游标分页：从随机位置取一页
+     */
+    @Benchmark
+    public UserPage storePage() {
+        return store.page((long) randomIndex(), 50);
+    }
+
+    /**
+     * 多线程并发读，检查无锁读取的扩展性
+     */
+    @Benchmark
+    @Threads(4)
+    public User storeFindByUsernameContended() {
+        return store.findByUsername("user" + randomIndex());
+    }
+}
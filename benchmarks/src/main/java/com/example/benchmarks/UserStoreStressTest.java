@@ -0,0 +1,220 @@
+package com.example.benchmarks;
+
+import com.example.user.entity.User;
+import com.example.user.store.DuplicateUserException;
+import com.example.user.store.UserStore;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UserStore并发压力测试
+ *
+ * 多个线程同时对一小批用户名和邮箱执行新增、改名、改邮箱、删除和查询，制造尽可能多的索引冲突，
+ * 结束后检查存储的一致性:
+ * 1. 每个用户都能通过自己的用户名和邮箱查到，且查到的是同一个ID
+ * 2. 没有两个用户持有相同的用户名或邮箱
+ * 3. 成功新增数 - 成功删除数 = 最终用户数，ID没有重复分配
+ * 4. 运行过程中查询从未返回与查询条件不符的用户
+ *
+ * 作为对照，先用原来的静态ArrayList实现执行同样的并发新增，统计丢失的用户、重复的ID和抛出的异常。
+ * 这里用更大的操作量做压力测试并输出吞吐量；同样的一致性检查以较小的规模作为单元测试
+ * UserStoreConcurrencyTest在构建中运行。
+ *
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.example.benchmarks.UserStoreStressTest
+ */
+public class UserStoreStressTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+
+    /**
+     * 用户名和邮箱的取值范围，故意很小以便频繁冲突
+     */
+    private static final int KEY_SPACE = 256;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("threads=%d, operations/thread=%d, key space=%d%n", THREADS, OPERATIONS_PER_THREAD, KEY_SPACE);
+        legacyList();
+        store();
+    }
+
+    /**
+     * 原实现：静态ArrayList + 求max生成ID
+     */
+    private static void legacyList() throws InterruptedException {
+        final List<User> list = new ArrayList<>();
+        final AtomicLong attempted = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        runConcurrently(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                attempted.incrementAndGet();
+                try {
+                    long newId = list.isEmpty() ? 1 : list.stream().mapToLong(User::getId).max().getAsLong() + 1;
+                    list.add(new User(newId, "legacy-" + Thread.currentThread().getId() + "-" + i, null));
+                } catch (RuntimeException e) {
+                    errors.incrementAndGet();  // ConcurrentModificationException、NullPointerException等
+                }
+            }
+        });
+
+        Set<Long> ids = new HashSet<>();
+        long duplicateIds = 0;
+        long nulls = 0;
+        for (User user : new ArrayList<>(list)) {
+            if (user == null) {
+                nulls++;
+            } else if (!ids.add(user.getId())) {
+                duplicateIds++;
+            }
+        }
+        System.out.printf("legacy list: attempted=%d, stored=%d, exceptions=%d, null slots=%d, duplicate ids=%d%n",
+                attempted.get(), list.size(), errors.get(), nulls, duplicateIds);
+    }
+
+    private static void store() throws InterruptedException {
+        final UserStore store = new UserStore();
+        final AtomicLong inserted = new AtomicLong();
+        final AtomicLong deleted = new AtomicLong();
+        final AtomicLong updated = new AtomicLong();
+        final AtomicLong conflicts = new AtomicLong();
+        final AtomicLong wrongReads = new AtomicLong();
+
+        long start = System.nanoTime();
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                String username = "user" + random.nextInt(KEY_SPACE);
+                String email = "mail" + random.nextInt(KEY_SPACE) + "@example.com";
+                try {
+                    switch (random.nextInt(6)) {
+                        case 0:
+                            store.insert(new User(null, username, "password", email));
+                            inserted.incrementAndGet();
+                            break;
+                        case 1: {
+                            User user = store.findByUsername(username);
+                            if (user != null && store.delete(user.getId())) {
+                                deleted.incrementAndGet();
+                            }
+                            break;
+                        }
+                        case 2: {
+                            User user = store.findByUsername(username);
+                            if (user != null) {
+                                final String renamed = "user" + random.nextInt(KEY_SPACE);
+                                final String newEmail = random.nextBoolean() ? null : email;
+                                if (store.update(user.getId(), current -> {
+                                    current.setUsername(renamed);
+                                    current.setEmail(newEmail);
+                                    return current;
+                                }) != null) {
+                                    updated.incrementAndGet();
+                                }
+                            }
+                            break;
+                        }
+                        case 3: {
+                            User user = store.findByUsername(username);
+                            if (user != null && !username.equals(user.getUsername())) {
+                                wrongReads.incrementAndGet();
+                            }
+                            break;
+                        }
+                        case 4: {
+                            User user = store.findByEmail(email);
+                            if (user != null && !email.equalsIgnoreCase(user.getEmail())) {
+                                wrongReads.incrementAndGet();
+                            }
+                            break;
+                        }
+                        default: {
+                            User byName = store.findByUsername(username);
+                            if (byName != null) {
+                                User byId = store.findById(byName.getId()).orElse(null);
+                                if (byId != null && !byId.getId().equals(byName.getId())) {
+                                    wrongReads.incrementAndGet();
+                                }
+                            }
+                            break;
+                        }
+                    }
+                } catch (DuplicateUserException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+        });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        List<String> violations = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<User> all = store.findAll();
+        for (User user : all) {
+            if (!ids.add(user.getId())) {
+                violations.add("duplicate id " + user.getId());
+            }
+            if (!usernames.add(user.getUsername())) {
+                violations.add("duplicate username " + user.getUsername());
+            }
+            User byName = store.findByUsername(user.getUsername());
+            if (byName == null || !byName.getId().equals(user.getId())) {
+                violations.add("username index broken for " + user.getUsername());
+            }
+            if (user.getEmail() != null) {
+                if (!emails.add(user.getEmail().toLowerCase())) {
+                    violations.add("duplicate email " + user.getEmail());
+                }
+                User byEmail = store.findByEmail(user.getEmail());
+                if (byEmail == null || !byEmail.getId().equals(user.getId())) {
+                    violations.add("email index broken for " + user.getEmail());
+                }
+            }
+        }
+        if (inserted.get() - deleted.get() != all.size()) {
+            violations.add("inserted - deleted = " + (inserted.get() - deleted.get()) + " but size = " + all.size());
+        }
+        if (wrongReads.get() > 0) {
+            violations.add(wrongReads.get() + " reads returned a user that did not match the query");
+        }
+
+        System.out.printf("user store:  %d ops in %d ms, inserted=%d, updated=%d, deleted=%d, conflicts=%d, final size=%d%n",
+                (long) THREADS * OPERATIONS_PER_THREAD, elapsedMillis,
+                inserted.get(), updated.get(), deleted.get(), conflicts.get(), all.size());
+        if (violations.isEmpty()) {
+            System.out.println("user store:  consistent");
+        } else {
+            System.out.println("user store:  " + violations.size() + " violations, first: " + violations.subList(0, Math.min(10, violations.size())));
+            System.exit(1);
+        }
+    }
+
+    private static void runConcurrently(final Runnable task) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.common.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 令牌吊销增量数据
+ *
+ * 认证服务按吊销记录的递增序号分批返回被吊销的令牌ID，网关据此增量同步本地吊销列表。
+ * 网关下一次请求时把cursor作为after参数传回，即可只拉取新增的记录。
+ */
+public class RevocationBatch {
+
+    /**
+     * 本批数据之后的游标
+     * 本批有数据时为最后一条记录的序号；没有数据时为服务端当前的最大序号，
+     * 如果它小于请求的after，说明服务端数据已重置，客户端应从0开始重新同步
+     */
+    private long cursor;
+
+    /**
+     * 被吊销的令牌列表，按序号升序排列
+     */
+    private List<Entry> entries = new ArrayList<>();
+
+    public RevocationBatch() {
+    }
+
+    public RevocationBatch(long cursor, List<Entry> entries) {
+        this.cursor = cursor;
+        this.entries = entries;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 单条吊销记录
+     */
+    public static class Entry {
+        /**
+         * 被吊销令牌的ID(jti)
+         */
+        private String jti;
+
+        /**
+         * 令牌原本的过期时间（毫秒时间戳），过期后这条记录即可丢弃
+         */
+        private long expiresAt;
+
+        public Entry() {
+        }
+
+        public Entry(String jti, long expiresAt) {
+            this.jti = jti;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getJti() {
+            return jti;
+        }
+
+        public void setJti(String jti) {
+            this.jti = jti;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public void setExpiresAt(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 延迟感知负载均衡器
+ *
+ * 默认的轮询策略对所有实例一视同仁，一个变慢的实例会持续分到同样多的请求，拖高整体的p99。
+ * 该负载均衡器采用“二选一”(power of two choices)策略：每次随机挑选两个实例，
+ * 选择代价较小的一个，代价 = 延迟的指数加权移动平均(EWMA) × (进行中的请求数 + 1)。
+ *
+ * 设计要点:
+ * 1. 同时实现LoadBalancerLifecycle，网关的lb://路由和Feign客户端在请求开始和结束时
+ *    都会回调它，据此统计每个实例的进行中请求数和响应延迟
+ * 2. EWMA按时间衰减而不是按请求数衰减，流量少的实例也能较快忘掉旧的延迟，
+ *    被避开的慢实例过一段时间会重新得到试探流量；观测到更高的延迟时立即采用（peak EWMA），
+ *    对变慢的实例反应更快
+ * 3. 失败的请求按至少 failurePenalty 计入延迟，出错的实例会被自然避开
+ * 4. 只比较两个随机实例，不需要全局排序，也不会让所有请求同时涌向同一个“最快”实例
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    /**
+     * 每选择这么多次清理一次已下线实例的统计信息
+     */
+    private static final int PRUNE_INTERVAL = 1024;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+
+    private final String serviceId;
+
+    /**
+     * EWMA的衰减时间常数（纳秒）
+     */
+    private final long decayNanos;
+
+    /**
+     * 尚无延迟样本的实例使用的初始延迟（纳秒）
+     */
+    private final long initialLatencyNanos;
+
+    /**
+     * 失败请求至少计入的延迟（纳秒）
+     */
+    private final long failurePenaltyNanos;
+
+    /**
+     * 纳秒时钟，模拟测试中可以替换为虚拟时钟
+     */
+    private final LongSupplier nanoClock;
+
+    /**
+     * 按实例保存的统计信息
+     */
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    private final AtomicInteger choices = new AtomicInteger();
+
+    /**
+     * 构造函数，使用默认参数：衰减时间10秒，初始延迟1毫秒，失败惩罚1秒
+     *
+     * @param supplierProvider 服务实例列表提供者
+     * @param serviceId 服务名
+     */
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId) {
+        this(supplierProvider, serviceId, TimeUnit.SECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(1),
+                TimeUnit.SECONDS.toNanos(1), System::nanoTime);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param supplierProvider 服务实例列表提供者
+     * @param serviceId 服务名
+     * @param decayNanos EWMA的衰减时间常数（纳秒）
+     * @param initialLatencyNanos 尚无样本实例的初始延迟（纳秒）
+     * @param failurePenaltyNanos 失败请求至少计入的延迟（纳秒）
+     * @param nanoClock 纳秒时钟
+     */
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                    long decayNanos, long initialLatencyNanos, long failurePenaltyNanos,
+                                    LongSupplier nanoClock) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.decayNanos = decayNanos;
+        this.initialLatencyNanos = initialLatencyNanos;
+        this.failurePenaltyNanos = failurePenaltyNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    /**
+     * 从实例列表中选择一个实例
+     *
+     * @param instances 可用实例列表
+     * @return 选择结果
+     */
+    public Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if ((choices.incrementAndGet() & (PRUNE_INTERVAL - 1)) == 0) {
+            prune(instances);
+        }
+        int size = instances.size();
+        if (size == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;  // 保证两个下标不同
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        long now = nanoClock.getAsLong();
+        return new DefaultResponse(statsOf(a).cost(now) <= statsOf(b).cost(now) ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+        // 选择实例之前无需处理
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext) {
+            ((TimedRequestContext) request.getContext()).setRequestStartTime(nanoClock.getAsLong());
+        }
+        statsOf(lbResponse.getServer()).outstanding.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        InstanceStats instanceStats = statsOf(lbResponse.getServer());
+        instanceStats.outstanding.decrementAndGet();
+
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request == null || !(request.getContext() instanceof TimedRequestContext)) {
+            return;
+        }
+        long startTime = ((TimedRequestContext) request.getContext()).getRequestStartTime();
+        if (startTime == 0L) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        long latency = now - startTime;
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            latency = Math.max(latency, failurePenaltyNanos);
+        }
+        instanceStats.observe(latency, now);
+    }
+
+    /**
+     * 获取实例的当前代价，供监控和测试使用
+     *
+     * @param instance 服务实例
+     * @return 代价（纳秒 × 并发）
+     */
+    public double cost(ServiceInstance instance) {
+        return statsOf(instance).cost(nanoClock.getAsLong());
+    }
+
+    private InstanceStats statsOf(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats(initialLatencyNanos, nanoClock.getAsLong()));
+    }
+
+    /**
+     * 清理已不在实例列表中且没有进行中请求的实例统计
+     */
+    private void prune(List<ServiceInstance> instances) {
+        if (stats.size() <= instances.size()) {
+            return;
+        }
+        Set<String> live = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            live.add(key(instance));
+        }
+        stats.entrySet().removeIf(e -> !live.contains(e.getKey()) && e.getValue().outstanding.get() <= 0);
+    }
+
+    private static String key(ServiceInstance instance) {
+        String instanceId = instance.getInstanceId();
+        return instanceId != null ? instanceId : instance.getHost() + ':' + instance.getPort();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyAwareLoadBalancer{serviceId='" + serviceId + "'}";
+    }
+
+    /**
+     * 单个实例的统计信息
+     */
+    private final class InstanceStats {
+
+        /**
+         * 进行中的请求数
+         */
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        /**
+         * 延迟的EWMA（纳秒）
+         */
+        private double ewma;
+
+        /**
+         * 上次更新EWMA的时间
+         */
+        private long lastUpdate;
+
+        private InstanceStats(long initialLatency, long now) {
+            this.ewma = initialLatency;
+            this.lastUpdate = now;
+        }
+
+        synchronized void observe(long latency, long now) {
+            if (latency > ewma) {
+                ewma = latency;  // peak EWMA：变慢时立即反映
+            } else {
+                double weight = Math.exp(-(double) Math.max(0L, now - lastUpdate) / decayNanos);
+                ewma = ewma * weight + latency * (1 - weight);
+            }
+            lastUpdate = now;
+        }
+
+        /**
+         * 计算代价：长时间没有新样本的实例，其EWMA会随时间衰减，
+         * 曾经变慢而被避开的实例过一段时间后会重新获得试探流量
+         */
+        synchronized double cost(long now) {
+            double decayed = ewma * Math.exp(-(double) Math.max(0L, now - lastUpdate) / decayNanos);
+            int inFlight = Math.max(0, outstanding.get());
+            return decayed * (inFlight + 1);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * 延迟感知负载均衡器配置
+ *
+ * 通过 @LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+ * 注册到各服务，Spring Cloud LoadBalancer会为每个下游服务创建独立的子上下文并在其中加载本配置。
+ *
+ * 注意：这里故意不加 @Configuration。各服务都会扫描 com.example.common 包，
+ * 如果加了注解，这个Bean会被注册到主上下文中，而不是每个下游服务的子上下文。
+ *
+ * 可选配置项（均有默认值）:
+ * - loadbalancer.latency-aware.decay：EWMA衰减时间，默认10s
+ * - loadbalancer.latency-aware.initial-latency：新实例的初始延迟，默认1ms
+ * - loadbalancer.latency-aware.failure-penalty：失败请求至少计入的延迟，默认1s
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                duration(environment, "loadbalancer.latency-aware.decay", Duration.ofSeconds(10)).toNanos(),
+                duration(environment, "loadbalancer.latency-aware.initial-latency", Duration.ofMillis(1)).toNanos(),
+                duration(environment, "loadbalancer.latency-aware.failure-penalty", Duration.ofSeconds(1)).toNanos(),
+                System::nanoTime);
+    }
+
+    private static Duration duration(Environment environment, String key, Duration defaultValue) {
+        // 子上下文的Environment没有Spring Boot的类型转换器，手动解析 10s、500ms 这类写法
+        String value = environment.getProperty(key);
+        return value != null ? DurationStyle.detectAndParse(value) : defaultValue;
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.common.ratelimit;
+
+import java.security.SecureRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * 内存有界的滑动窗口节流器
+ *
+ * 按键统计滑动窗口内的请求数，超过上限后拒绝，并对持续超限的键做指数退避：
+ * 第一次超限封禁 baseBackoff，之后每次再超限封禁时间翻倍，直到 maxBackoff。
+ *
+ * 计数保存在固定数量的计数槽(stripe)中，内存占用只取决于槽数，与键的数量无关，
+ * 撞库流量即使使用数百万个不同的用户名也不会撑爆内存。每个键通过带随机种子的哈希
+ * 映射到两个候选槽（二路组相联），槽中记录键的64位指纹，只有指纹相同才共用计数，
+ * 因此一个键的请求不会让另一个键被误封。两个候选槽都被其他键占用时，
+ * 淘汰计数较小的那个：反复出现的攻击键计数高，会留在表中；大量只出现一次的随机键
+ * 互相淘汰，最多让攻击者少计几次，不会误伤正常用户。
+ * 正在封禁中的槽不会被淘汰，避免攻击者用随机键冲掉封禁；两个候选槽都在封禁中时
+ * 新键也暂时被拒绝（表被封禁的键占满，说明正在遭受大规模攻击，此时宁可保守）。
+ *
+ * 除了每次请求都计数的 {@link #tryAcquire(String)}，还可以把检查和计数分开：
+ * {@link #check(String)} 只判断键是否已超限，{@link #record(String)} 只计入一次，
+ * 适合只统计失败次数的场景（例如登录失败），成功的请求不会消耗额度。
+ *
+ * 每个槽单独加锁，锁竞争被分散到各个槽上。
+ * 滑动窗口用"上一窗口计数×剩余比例+当前窗口计数"近似，每个槽只需要两个计数。
+ */
+public class SlidingWindowThrottle {
+
+    /**
+     * 连续超限次数的上限，防止退避时间计算溢出
+     */
+    private static final int MAX_STRIKES = 31;
+
+    private final int limit;
+
+    private final long windowNanos;
+
+    private final long baseBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Slot[] slots;
+
+    private final int mask;
+
+    private final long seed;
+
+    /**
+     * 构造函数
+     *
+     * @param limit 窗口内允许的最大请求数
+     * @param windowNanos 窗口长度（纳秒）
+     * @param baseBackoffNanos 第一次超限的封禁时间（纳秒）
+     * @param maxBackoffNanos 封禁时间上限（纳秒）
+     * @param stripes 计数槽数量，向上取整到2的幂
+     */
+    public SlidingWindowThrottle(int limit, long windowNanos, long baseBackoffNanos, long maxBackoffNanos,
+                                 int stripes) {
+        this(limit, windowNanos, baseBackoffNanos, maxBackoffNanos, stripes, System::nanoTime);
+    }
+
+    /**
+     * 构造函数，可以指定时钟，便于模拟
+     */
+    public SlidingWindowThrottle(int limit, long windowNanos, long baseBackoffNanos, long maxBackoffNanos,
+                                 int stripes, LongSupplier nanoClock) {
+        if (limit <= 0 || windowNanos <= 0 || baseBackoffNanos <= 0 || maxBackoffNanos < baseBackoffNanos) {
+            throw new IllegalArgumentException("Invalid throttle configuration");
+        }
+        this.limit = limit;
+        this.windowNanos = windowNanos;
+        this.baseBackoffNanos = baseBackoffNanos;
+        this.maxBackoffNanos = maxBackoffNanos;
+        this.nanoClock = nanoClock;
+
+        int size = Integer.highestOneBit(Math.max(stripes, 2) - 1) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        long now = nanoClock.getAsLong();
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(now);
+        }
+        this.seed = new SecureRandom().nextLong();
+    }
+
+    /**
+     * 尝试通过节流器，通过时计入一次请求
+     *
+     * @param key 节流键（用户名或客户端IP）
+     * @return 通过返回0；否则返回需要等待的纳秒数
+     */
+    public long tryAcquire(String key) {
+        long hash = hash(key);
+        int i = (int) hash & mask;
+        int j = (int) (hash >>> 32) & mask;
+        // 按下标顺序加锁，避免两个线程以相反顺序锁住同一对槽
+        Slot first = slots[Math.min(i, j)];
+        Slot second = slots[Math.max(i, j)];
+        long now = nanoClock.getAsLong();
+        synchronized (first) {
+            synchronized (second) {
+                Slot slot = select(first, second, hash, now);
+                if (slot == null) {
+                    return Math.max(1L, Math.min(first.blockedUntil, second.blockedUntil) - now);
+                }
+                return acquire(slot, now, true);
+            }
+        }
+    }
+
+    /**
+     * 检查键是否已超限，不计入请求
+     *
+     * 没有计数记录的键直接通过，不会为它分配计数槽
+     *
+     * @param key 节流键
+     * @return 通过返回0；否则返回需要等待的纳秒数
+     */
+    public long check(String key) {
+        long hash = hash(key);
+        int i = (int) hash & mask;
+        int j = (int) (hash >>> 32) & mask;
+        Slot first = slots[Math.min(i, j)];
+        Slot second = slots[Math.max(i, j)];
+        long now = nanoClock.getAsLong();
+        synchronized (first) {
+            synchronized (second) {
+                Slot slot = first.fingerprint == hash ? first : second.fingerprint == hash ? second : null;
+                return slot != null ? acquire(slot, now, false) : 0L;
+            }
+        }
+    }
+
+    /**
+     * 计入一次请求，不检查是否超限；超限在下一次 {@link #check(String)} 或 {@link #tryAcquire(String)} 时生效
+     *
+     * @param key 节流键
+     */
+    public void record(String key) {
+        long hash = hash(key);
+        int i = (int) hash & mask;
+        int j = (int) (hash >>> 32) & mask;
+        Slot first = slots[Math.min(i, j)];
+        Slot second = slots[Math.max(i, j)];
+        long now = nanoClock.getAsLong();
+        synchronized (first) {
+            synchronized (second) {
+                Slot slot = select(first, second, hash, now);
+                if (slot != null) {
+                    slot.roll(now);
+                    slot.current++;
+                }
+            }
+        }
+    }
+
+    /**
+     * 计数槽数量
+     *
+     * @return 槽数量
+     */
+    public int stripes() {
+        return slots.length;
+    }
+
+    /**
+     * 找到键所在的槽，不存在时淘汰一个候选槽分配给它
+     *
+     * @return 键所在的槽；两个候选槽都在封禁中时返回null
+     */
+    private Slot select(Slot first, Slot second, long fingerprint, long now) {
+        if (first.fingerprint == fingerprint) {
+            return first;
+        }
+        if (second.fingerprint == fingerprint) {
+            return second;
+        }
+        first.roll(now);
+        second.roll(now);
+        boolean firstBlocked = first.blockedUntil - now > 0;
+        boolean secondBlocked = second.blockedUntil - now > 0;
+        Slot victim;
+        if (firstBlocked && secondBlocked) {
+            return null;
+        } else if (firstBlocked) {
+            victim = second;
+        } else if (secondBlocked) {
+            victim = first;
+        } else {
+            victim = first.estimate(now) <= second.estimate(now) ? first : second;
+        }
+        victim.reset(fingerprint, now);
+        return victim;
+    }
+
+    /**
+     * 检查槽是否超限，超限时按连续超限次数封禁；未超限且count为true时计入一次请求
+     *
+     * @return 通过返回0；否则返回需要等待的纳秒数
+     */
+    private long acquire(Slot slot, long now, boolean count) {
+        slot.roll(now);
+        long blocked = slot.blockedUntil - now;
+        if (blocked > 0) {
+            return blocked;
+        }
+        if (slot.estimate(now) >= limit) {
+            if (slot.strikes < MAX_STRIKES) {
+                slot.strikes++;
+            }
+            int shift = slot.strikes - 1;
+            long backoff = baseBackoffNanos > (maxBackoffNanos >> shift)
+                    ? maxBackoffNanos
+                    : baseBackoffNanos << shift;
+            slot.blockedUntil = now + backoff;
+            return backoff;
+        }
+        if (count) {
+            slot.current++;
+        }
+        return 0L;
+    }
+
+    /**
+     * 带随机种子的64位哈希（FNV-1a后再做一次混合），既是键的指纹，
+     * 高低32位又分别作为两个候选槽的下标
+     */
+    private long hash(String key) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h != 0L ? h : 1L;  // 0表示空槽
+    }
+
+    /**
+     * 计数槽，所有字段都在槽自身的锁保护下访问
+     */
+    private final class Slot {
+
+        /**
+         * 占用该槽的键的指纹，0表示空槽
+         */
+        private long fingerprint;
+
+        /**
+         * 当前窗口的起始时间
+         */
+        private long windowStart;
+
+        private int previous;
+
+        private int current;
+
+        /**
+         * 连续超限次数，某个完整窗口内没有超限时清零
+         */
+        private int strikes;
+
+        /**
+         * 封禁截止时间，没有封禁时早于当前时间
+         */
+        private long blockedUntil;
+
+        private Slot(long now) {
+            this.windowStart = now;
+            this.blockedUntil = now;
+        }
+
+        /**
+         * 分配给新的键，清空计数和封禁状态
+         */
+        private void reset(long newFingerprint, long now) {
+            fingerprint = newFingerprint;
+            windowStart = now;
+            previous = 0;
+            current = 0;
+            strikes = 0;
+            blockedUntil = now;
+        }
+
+        /**
+         * 时间越过当前窗口时滚动到新窗口
+         */
+        private void roll(long now) {
+            long elapsed = now - windowStart;
+            if (elapsed < windowNanos) {
+                return;
+            }
+            previous = elapsed < 2 * windowNanos ? current : 0;
+            current = 0;
+            windowStart += elapsed - elapsed % windowNanos;
+            if (previous < limit && blockedUntil - now <= 0) {
+                strikes = 0;
+            }
+        }
+
+        /**
+         * 滑动窗口内的近似请求数
+         */
+        private double estimate(long now) {
+            double remaining = 1.0 - (double) (now - windowStart) / windowNanos;
+            return current + previous * remaining;
+        }
+    }
+}
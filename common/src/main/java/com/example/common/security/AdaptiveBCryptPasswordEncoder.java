@@ -0,0 +1,92 @@
+package com.example.common.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * 按机器校准代价的BCrypt密码编码器
+ *
+ * 代价由 {@link BCryptCostCalibrator} 在启动时实测得出，生成的哈希本身带有代价（$2a$NN$...）。
+ * 存储的哈希代价低于目标代价时 {@link #upgradeEncoding(String)} 返回true，
+ * 登录时可以据此用明文密码重新哈希，使存量哈希逐步提升到目标代价。
+ *
+ * 代价更高的哈希不会被降级：启动时负载较高会使校准结果偏低，认证服务、用户服务和各个实例
+ * 也会各自校准出不同的代价，如果双向收敛，共享的用户数据会被弱化，或在每次登录时被来回重新哈希。
+ * 只升不降时，存量哈希的代价只会单调上升，最终停在各实例中最高的目标代价上。
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    /**
+     * 校准时每个代价的测量次数
+     */
+    private static final int CALIBRATION_SAMPLES = 5;
+
+    private final int cost;
+
+    public AdaptiveBCryptPasswordEncoder(int cost) {
+        super(cost);
+        this.cost = cost;
+    }
+
+    /**
+     * 在当前机器上校准代价并创建编码器
+     *
+     * @param targetLatency 单次哈希的目标延迟
+     * @param minCost 允许的最小代价
+     * @param maxCost 允许的最大代价
+     * @return 编码器
+     */
+    public static AdaptiveBCryptPasswordEncoder calibrated(Duration targetLatency, int minCost, int maxCost) {
+        long start = System.nanoTime();
+        int cost = BCryptCostCalibrator.calibrate(targetLatency.toNanos(), minCost, maxCost, CALIBRATION_SAMPLES);
+        log.info("BCrypt cost calibrated to {} for target {}ms in {}ms", cost, targetLatency.toMillis(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return new AdaptiveBCryptPasswordEncoder(cost);
+    }
+
+    /**
+     * 获取目标代价
+     *
+     * @return BCrypt代价
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * 存储的哈希代价低于目标代价时需要重新哈希
+     *
+     * @param encodedPassword 存储的哈希
+     * @return 需要重新哈希时返回true
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = costOf(encodedPassword);
+        return stored > 0 && stored < cost;
+    }
+
+    /**
+     * 从BCrypt哈希中读取代价
+     *
+     * @param encodedPassword BCrypt哈希，格式为 $2a$NN$...
+     * @return 代价；不是BCrypt哈希时返回-1
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$'
+                || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.common.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.Arrays;
+
+/**
+ * BCrypt代价校准器
+ *
+ * BCrypt的代价(cost)每加1，哈希耗时翻倍。默认代价10在不同机器上的耗时可能相差数倍，
+ * 写死一个代价要么在慢机器上拖垮登录，要么在快机器上浪费安全余量。
+ * 校准器在当前机器上实测各代价的哈希耗时，选出不超过目标延迟的最大代价。
+ *
+ * 从最小代价开始逐级测量，预计下一级（耗时翻倍）会超过目标时停止，
+ * 不会真正执行远超目标的高代价哈希，启动开销约为目标延迟的几倍。
+ */
+public final class BCryptCostCalibrator {
+
+    /**
+     * BCrypt允许的代价范围
+     */
+    public static final int MIN_COST = 4;
+    public static final int MAX_COST = 31;
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * 选出耗时不超过目标延迟的最大代价
+     *
+     * @param targetNanos 单次哈希的目标延迟（纳秒）
+     * @param minCost 允许的最小代价，即使超过目标延迟也不会低于它
+     * @param maxCost 允许的最大代价
+     * @param samples 每个代价的测量次数，取中位数
+     * @return 校准后的代价
+     */
+    public static int calibrate(long targetNanos, int minCost, int maxCost, int samples) {
+        checkCost(minCost);
+        checkCost(maxCost);
+        if (minCost > maxCost) {
+            throw new IllegalArgumentException("minCost must not exceed maxCost");
+        }
+
+        measure(MIN_COST, 3);  // 预热，让JIT编译BCrypt的核心循环
+        int cost = minCost;
+        long nanos = measure(cost, samples);
+        while (cost < maxCost && nanos * 2 <= targetNanos) {
+            long next = measure(cost + 1, samples);
+            if (next > targetNanos) {
+                break;  // 实测超过目标，保留当前代价
+            }
+            cost++;
+            nanos = next;
+        }
+        return cost;
+    }
+
+    /**
+     * 测量指定代价的单次哈希耗时
+     *
+     * @param cost BCrypt代价
+     * @param samples 测量次数
+     * @return 耗时的中位数（纳秒）
+     */
+    public static long measure(int cost, int samples) {
+        checkCost(cost);
+        long[] nanos = new long[Math.max(samples, 1)];
+        String salt = BCrypt.gensalt(cost);
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2];
+    }
+
+    private static void checkCost(int cost) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("BCrypt cost must be between " + MIN_COST + " and " + MAX_COST);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.common.security;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 网关转发给下游服务的用户声明
+ *
+ * 网关验证JWT后，把用户名、用户ID和角色编码进内部声明头（X-Internal-Claims），
+ * 下游服务由 {@link InternalClaimsFilter} 校验后得到该对象，并作为请求的Principal。
+ * 下游可以通过 request.getUserPrincipal() 或 {@link InternalClaimsFilter#ATTRIBUTE} 读取，
+ * 不需要再解析JWT或查询用户。
+ */
+public final class InternalClaims implements Principal {
+
+    private final String username;
+
+    private final Long userId;
+
+    private final List<String> roles;
+
+    /**
+     * 过期时间（毫秒时间戳），与JWT的过期时间一致
+     */
+    private final long expiration;
+
+    public InternalClaims(String username, Long userId, List<String> roles, long expiration) {
+        this.username = username;
+        this.userId = userId;
+        this.roles = roles != null ? Collections.unmodifiableList(roles) : Collections.<String>emptyList();
+        this.expiration = expiration;
+    }
+
+    /**
+     * 获取用户名
+     *
+     * @return 用户名
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    /**
+     * 获取用户ID
+     *
+     * @return 用户ID，令牌中没有用户ID时为null
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * 获取角色列表
+     *
+     * @return 不可修改的角色列表
+     */
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * 获取过期时间
+     *
+     * @return 毫秒时间戳
+     */
+    public long getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * 判断是否拥有指定角色，"ADMIN" 和 "ROLE_ADMIN" 视为同一个角色
+     *
+     * @param role 角色名
+     * @return 拥有该角色时返回true
+     */
+    public boolean hasRole(String role) {
+        String bare = stripPrefix(role);
+        for (String candidate : roles) {
+            if (stripPrefix(candidate).equals(bare)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripPrefix(String role) {
+        return role.startsWith("ROLE_") ? role.substring(5) : role;
+    }
+
+    @Override
+    public String toString() {
+        return "InternalClaims{username='" + username + "', userId=" + userId + ", roles=" + roles + '}';
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.common.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * 内部声明过滤器
+ *
+ * 下游服务（Servlet应用）中的过滤器：校验网关转发的 X-Internal-Claims 请求头，
+ * 把其中的用户信息设置为请求的Principal，控制器可以通过 request.getUserPrincipal()、
+ * request.isUserInRole() 或请求属性 {@link #ATTRIBUTE} 获取当前用户，无需解析JWT。
+ *
+ * 没有该请求头的请求原样放行（例如服务间的Feign调用）；
+ * 请求头签名不匹配或已过期时返回401，防止伪造。
+ * 只在配置了 internal-claims.secret 的Servlet应用中启用，网关（WebFlux）不会加载它。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty("internal-claims.secret")
+public class InternalClaimsFilter extends OncePerRequestFilter {
+
+    /**
+     * 保存 {@link InternalClaims} 的请求属性名
+     */
+    public static final String ATTRIBUTE = InternalClaims.class.getName();
+
+    private final InternalClaimsCodec codec;
+
+    public InternalClaimsFilter(InternalClaimsCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(InternalClaimsCodec.HEADER);
+        if (header == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        InternalClaims claims;
+        try {
+            claims = codec.decode(header);
+        } catch (RuntimeException e) {
+            claims = null;  // 载荷中的数字格式错误等
+        }
+        if (claims == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        request.setAttribute(ATTRIBUTE, claims);
+        chain.doFilter(new AuthenticatedRequest(request, claims), response);
+    }
+
+    /**
+     * 以内部声明作为Principal的请求包装
+     */
+    private static final class AuthenticatedRequest extends HttpServletRequestWrapper {
+
+        private final InternalClaims claims;
+
+        private AuthenticatedRequest(HttpServletRequest request, InternalClaims claims) {
+            super(request);
+            this.claims = claims;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return claims;
+        }
+
+        @Override
+        public String getRemoteUser() {
+            return claims.getName();
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return claims.hasRole(role);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.common.util;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * HS256令牌签发器
+ *
+ * {@link JwtUtil#generateToken} 的快速路径。jjwt每签发一个令牌都要新建构建器和声明Map、
+ * 分配Date对象、用Jackson序列化一个永远不变的头部，再为签名新建Mac实例。这里改为:
+ * 1. 头部 {"alg":"HS256"} 在类加载时编码好，每次直接复制
+ * 2. 载荷JSON按UTF-8直接写入线程私有的字节缓冲区，不经过Map和Jackson
+ * 3. 每个线程复用一个已用密钥初始化的Mac实例和输出缓冲区
+ *
+ * 输出与jjwt 0.9.1签发的令牌格式一致：头部相同，声明为sub、jti、iat、exp、uid、roles，
+ * 时间以秒为单位，Base64url编码不带填充，任何标准的JWT库都可以验证。
+ */
+final class JwtMinter {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * base64url({"alg":"HS256"})，与jjwt生成的头部逐字节相同
+     */
+    private static final byte[] ENCODED_HEADER = "eyJhbGciOiJIUzI1NiJ9".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * HMAC-SHA256签名的字节数
+     */
+    private static final int SIGNATURE_LENGTH = 32;
+
+    /**
+     * 每个线程一份的Mac实例和缓冲区，Mac本身不是线程安全的
+     */
+    private final ThreadLocal<State> state;
+
+    JwtMinter(final SecretKey key) {
+        this.state = ThreadLocal.withInitial(() -> new State(key));
+        state.get();  // 启动时尽早暴露密钥或算法问题
+    }
+
+    /**
+     * 签发令牌
+     *
+     * @param subject 主题（用户名），为null时不写入
+     * @param id 令牌ID
+     * @param issuedAtMillis 签发时间（毫秒时间戳），按秒截断
+     * @param expirationMillis 过期时间（毫秒时间戳），按秒截断
+     * @param userId 用户ID，为null时不写入
+     * @param roles 角色，为空时不写入
+     * @return 紧凑格式的JWT
+     */
+    String mint(String subject, UUID id, long issuedAtMillis, long expirationMillis, Long userId, Collection<String> roles) {
+        State s = state.get();
+
+        // 载荷JSON
+        ByteBuffer json = s.json;
+        json.reset();
+        json.append((byte) '{');
+        if (subject != null) {
+            json.ascii("\"sub\":");
+            json.string(subject);
+            json.append((byte) ',');
+        }
+        json.ascii("\"jti\":\"");
+        json.uuid(id);
+        json.ascii("\",\"iat\":");
+        json.number(issuedAtMillis / 1000);
+        json.ascii(",\"exp\":");
+        json.number(expirationMillis / 1000);
+        if (userId != null) {
+            json.ascii(",\"" + VerifiedClaims.USER_ID_CLAIM + "\":");
+            json.number(userId);
+        }
+        if (roles != null && !roles.isEmpty()) {
+            json.ascii(",\"" + VerifiedClaims.ROLES_CLAIM + "\":[");
+            boolean first = true;
+            for (String role : roles) {
+                if (!first) {
+                    json.append((byte) ',');
+                }
+                json.string(role);
+                first = false;
+            }
+            json.append((byte) ']');
+        }
+        json.append((byte) '}');
+
+        // 头部.载荷，签名覆盖这一段
+        ByteBuffer out = s.out;
+        out.reset();
+        out.ensure(ENCODED_HEADER.length + 1 + base64Length(json.length) + 1 + base64Length(SIGNATURE_LENGTH));
+        out.append(ENCODED_HEADER);
+        out.append((byte) '.');
+        out.base64(json.bytes, json.length);
+        int signingInputLength = out.length;
+
+        Mac mac = s.mac;
+        mac.update(out.bytes, 0, signingInputLength);
+        byte[] signature = s.signature;
+        try {
+            mac.doFinal(signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign token", e);
+        }
+        out.append((byte) '.');
+        out.base64(signature, SIGNATURE_LENGTH);
+
+        return new String(out.bytes, 0, out.length, StandardCharsets.US_ASCII);
+    }
+
+    private static int base64Length(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    /**
+     * 线程私有的签发状态
+     */
+    private static final class State {
+
+        private final Mac mac;
+
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+
+        private final ByteBuffer json = new ByteBuffer(256);
+
+        private final ByteBuffer out = new ByteBuffer(512);
+
+        private State(SecretKey key) {
+            try {
+                this.mac = Mac.getInstance(MAC_ALGORITHM);
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(MAC_ALGORITHM + " not available", e);
+            }
+        }
+    }
+
+    /**
+     * 可复用的字节缓冲区，容量不足时按倍数扩容
+     */
+    private static final class ByteBuffer {
+
+        private byte[] bytes;
+
+        private int length;
+
+        private ByteBuffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        void ensure(int additional) {
+            int required = length + additional;
+            if (required > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+            }
+        }
+
+        void append(byte b) {
+            ensure(1);
+            bytes[length++] = b;
+        }
+
+        void append(byte[] src) {
+            ensure(src.length);
+            System.arraycopy(src, 0, bytes, length, src.length);
+            length += src.length;
+        }
+
+        /**
+         * 追加只含ASCII字符的常量文本
+         */
+        void ascii(String text) {
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                bytes[length++] = (byte) text.charAt(i);
+            }
+        }
+
+        void number(long value) {
+            ascii(Long.toString(value));
+        }
+
+        /**
+         * 以8-4-4-4-12的标准格式写入UUID，不经过UUID.toString
+         */
+        void uuid(UUID id) {
+            ensure(36);
+            long msb = id.getMostSignificantBits();
+            long lsb = id.getLeastSignificantBits();
+            hex(msb >>> 32, 8);
+            bytes[length++] = '-';
+            hex(msb >>> 16, 4);
+            bytes[length++] = '-';
+            hex(msb, 4);
+            bytes[length++] = '-';
+            hex(lsb >>> 48, 4);
+            bytes[length++] = '-';
+            hex(lsb, 12);
+        }
+
+        private void hex(long value, int digits) {
+            for (int i = digits - 1; i >= 0; i--) {
+                bytes[length + i] = HEX[(int) (value & 0xF)];
+                value >>>= 4;
+            }
+            length += digits;
+        }
+
+        /**
+         * 写入带引号的JSON字符串，按RFC 8259转义，非ASCII字符按UTF-8编码
+         */
+        void string(String value) {
+            ensure(value.length() * 3 + 2);
+            bytes[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    ensure(2);
+                    bytes[length++] = '\\';
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    ensure(6);
+                    bytes[length++] = '\\';
+                    bytes[length++] = 'u';
+                    hex(c, 4);
+                } else if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    ensure(4);
+                    bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = '?';  // 不成对的代理字符，与String.getBytes的处理一致
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            ensure(1);
+            bytes[length++] = '"';
+        }
+
+        /**
+         * 追加src前len个字节的base64url编码（不带填充），调用方需预留空间
+         */
+        void base64(byte[] src, int len) {
+            ensure(base64Length(len));
+            int i = 0;
+            int full = len - len % 3;
+            while (i < full) {
+                int bits = (src[i++] & 0xFF) << 16 | (src[i++] & 0xFF) << 8 | (src[i++] & 0xFF);
+                bytes[length++] = BASE64URL[(bits >>> 18) & 0x3F];
+                bytes[length++] = BASE64URL[(bits >>> 12) & 0x3F];
+                bytes[length++] = BASE64URL[(bits >>> 6) & 0x3F];
+                bytes[length++] = BASE64URL[bits & 0x3F];
+            }
+            int remaining = len - full;
+            if (remaining == 1) {
+                int bits = (src[i] & 0xFF) << 16;
+                bytes[length++] = BASE64URL[(bits >>> 18) & 0x3F];
+                bytes[length++] = BASE64URL[(bits >>> 12) & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+                bytes[length++] = BASE64URL[(bits >>> 18) & 0x3F];
+                bytes[length++] = BASE64URL[(bits >>> 12) & 0x3F];
+                bytes[length++] = BASE64URL[(bits >>> 6) & 0x3F];
+            }
+        }
+    }
+}
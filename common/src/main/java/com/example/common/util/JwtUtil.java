@@ -1,12 +1,23 @@
 package com.example.common.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MissingClaimException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -14,24 +25,79 @@ import java.util.function.Function;
  * 
  * 用于JWT令牌的生成、解析和验证，是微服务认证体系的核心组件。
  * JWT (JSON Web Token) 是一种基于JSON的开放标准（RFC 7519），用于在各方之间安全地传输信息。
- * 本工具类实现了JWT的主要操作，供认证服务、网关和各个微服务使用。
+ * 本工具类实现了JWT的主要操作，供认证服务和网关使用。
+ * 只有配置了jwt.secret的服务才会创建该组件；下游服务通过网关转发的内部声明头获取用户信息，
+ * 不需要持有JWT密钥。
  */
 @Component
+@ConditionalOnProperty("jwt.secret")
 public class JwtUtil {
 
+    /**
+     * 签名算法
+     */
+    private static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.HS256;
+
     /**
      * JWT签名密钥
-     * 通过配置文件注入，用于对令牌进行签名和验证
+     * 由配置文件中的jwt.secret在启动时派生一次，用于对令牌进行签名和验证
+     */
+    private final SecretKey signingKey;
+
+    /**
+     * 预先构建的令牌解析器
+     * 配置完成后解析器只读，可以在多个线程间共享
+     */
+    private final JwtParser parser;
+
+    /**
+     * 令牌签发器
+     * 复用预编码的头部、线程私有的Mac实例和缓冲区，签发结果与jjwt一致
      */
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtMinter minter;
 
     /**
      * 令牌过期时间（秒）
      * 通过配置文件注入，指定令牌的有效期
      */
-    @Value("${jwt.expiration:86400}")
-    private Long expiration;
+    private final Long expiration;
+
+    /**
+     * 构造函数
+     *
+     * jwt.secret按Base64解码为密钥字节，与jjwt的signWith(SignatureAlgorithm, String)
+     * 处理方式一致，保证已签发的令牌仍然可以通过验证
+     *
+     * @param secret JWT签名密钥
+     * @param expiration 令牌过期时间（秒）
+     */
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration:86400}") Long expiration) {
+        this.signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), ALGORITHM.getJcaName());
+        this.parser = Jwts.parser().setSigningKey(signingKey);
+        this.minter = new JwtMinter(signingKey);
+        this.expiration = expiration;
+    }
+
+    /**
+     * 验证令牌并返回不可变的声明对象
+     *
+     * 令牌只解析和校验一次，调用方可以从返回结果中读取主题、过期时间、签发时间和角色，
+     * 无需再调用extractUsername、isTokenExpired等方法重复解析
+     *
+     * @param token JWT令牌
+     * @return 已验证的声明
+     * @throws JwtException 如果令牌格式错误、签名无效、已过期或缺少过期时间(exp)
+     */
+    public VerifiedClaims verify(String token) throws JwtException {
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        if (claims.getExpiration() == null) {
+            // 没有exp的令牌永不过期，拒绝这类令牌，避免被当作有效令牌长期缓存
+            throw new MissingClaimException(jws.getHeader(), claims, "JWT has no expiration (exp) claim");
+        }
+        return VerifiedClaims.from(claims);
+    }
 
     /**
      * 从令牌中提取用户名
@@ -73,7 +139,7 @@ public class JwtUtil {
      * @return 所有声明
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -90,18 +156,31 @@ public class JwtUtil {
     /**
      * 生成JWT令牌
      * 
-     * 使用用户名作为主题，设置签发时间和过期时间，
-     * 并使用配置的密钥和HS256算法进行签名
+     * 只包含用户名，不包含用户ID和角色
      * 
      * @param username 用户名，作为令牌的主题
      * @return 生成的JWT令牌字符串
      */
     public String generateToken(String username) {
-        return Jwts.builder()
-                .setSubject(username)  // 设置主题（用户名）
-                .setIssuedAt(new Date(System.currentTimeMillis()))  // 设置签发时间
-                .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))  // 设置过期时间
-                .signWith(SignatureAlgorithm.HS256, secret)  // 使用HS256算法和密钥签名
-                .compact();  // 生成JWT
+        return generateToken(username, null, Collections.<String>emptyList());
+    }
+
+    /**
+     * 生成JWT令牌
+     * 
+     * 使用用户名作为主题，设置令牌ID、签发时间和过期时间，
+     * 并使用配置的密钥和HS256算法进行签名。
+     * 签发由 {@link JwtMinter} 完成，不经过jjwt的构建器，生成的令牌仍由jjwt解析验证。
+     * 令牌ID(jti)是随机UUID，用于令牌吊销；
+     * 用户ID和角色写入令牌，网关验证后转发给下游服务，下游无需再查询用户
+     * 
+     * @param username 用户名，作为令牌的主题
+     * @param userId 用户ID，可以为null
+     * @param roles 角色列表
+     * @return 生成的JWT令牌字符串
+     */
+    public String generateToken(String username, Long userId, Collection<String> roles) {
+        long now = System.currentTimeMillis();
+        return minter.mint(username, UUID.randomUUID(), now, now + expiration * 1000, userId, roles);
     }
 } 
\ No newline at end of file
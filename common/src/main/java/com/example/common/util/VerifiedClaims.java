@@ -0,0 +1,171 @@
+package com.example.common.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 已验证的令牌声明
+ *
+ * 由 {@link JwtUtil#verify(String)} 在签名校验通过后创建，是一个不可变对象。
+ * 调用方可以反复读取其中的主题、用户ID、签发时间、过期时间和角色，而不需要再次解析令牌。
+ */
+public final class VerifiedClaims {
+
+    /**
+     * 角色声明的名称
+     */
+    public static final String ROLES_CLAIM = "roles";
+
+    /**
+     * 用户ID声明的名称
+     */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * 令牌ID(jti)，旧令牌中可能没有，此时为null
+     */
+    private final String id;
+
+    /**
+     * 主题（用户名）
+     */
+    private final String subject;
+
+    /**
+     * 用户ID，令牌中没有uid时为null
+     */
+    private final Long userId;
+
+    /**
+     * 签发时间（毫秒时间戳），令牌中没有iat时为0
+     */
+    private final long issuedAt;
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    private final long expiration;
+
+    /**
+     * 角色列表，不可修改
+     */
+    private final List<String> roles;
+
+    VerifiedClaims(String id, String subject, Long userId, long issuedAt, long expiration, List<String> roles) {
+        this.id = id;
+        this.subject = subject;
+        this.userId = userId;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.roles = roles;
+    }
+
+    /**
+     * 从jjwt解析结果中提取需要的字段
+     *
+     * @param claims 已通过签名校验的声明，必须包含过期时间(exp)
+     * @return 不可变的声明对象
+     * @throws IllegalArgumentException 如果声明中没有过期时间
+     */
+    static VerifiedClaims from(Claims claims) {
+        Date iat = claims.getIssuedAt();
+        Date exp = claims.getExpiration();
+        if (exp == null) {
+            throw new IllegalArgumentException("JWT has no expiration (exp) claim");
+        }
+        return new VerifiedClaims(
+                claims.getId(),
+                claims.getSubject(),
+                toUserId(claims.get(USER_ID_CLAIM)),
+                iat != null ? iat.getTime() : 0L,
+                exp.getTime(),
+                toRoles(claims.get(ROLES_CLAIM)));
+    }
+
+    private static Long toUserId(Object value) {
+        // JSON中的数字按大小被解析为Integer或Long
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    private static List<String> toRoles(Object value) {
+        if (!(value instanceof Collection)) {
+            return Collections.emptyList();
+        }
+        Collection<?> raw = (Collection<?>) value;
+        List<String> roles = new ArrayList<>(raw.size());
+        for (Object role : raw) {
+            if (role != null) {
+                roles.add(role.toString());
+            }
+        }
+        return Collections.unmodifiableList(roles);
+    }
+
+    /**
+     * 获取令牌ID(jti)
+     *
+     * @return 令牌ID，令牌中没有jti时为null
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 获取主题（用户名）
+     *
+     * @return 用户名
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * 获取用户ID
+     *
+     * @return 用户ID，令牌中没有uid时为null
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * 获取签发时间
+     *
+     * @return 毫秒时间戳，令牌中没有iat时为0
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * 获取过期时间
+     *
+     * @return 毫秒时间戳
+     */
+    public long getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * 获取角色列表
+     *
+     * @return 不可修改的角色列表，令牌中没有角色时为空列表
+     */
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * 判断令牌在当前时刻是否已过期
+     *
+     * @return 如果过期返回true，否则返回false
+     */
+    public boolean isExpired() {
+        return expiration <= System.currentTimeMillis();
+    }
+}
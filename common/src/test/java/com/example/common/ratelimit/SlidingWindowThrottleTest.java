@@ -0,0 +1,86 @@
+package com.example.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SlidingWindowThrottle单元测试
+ *
+ * 使用可控的时钟，验证窗口计数、指数退避、窗口滑动后恢复，以及检查与计数分离的语义
+ */
+class SlidingWindowThrottleTest {
+
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(1);
+
+    private static final long BASE_BACKOFF = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long MAX_BACKOFF = TimeUnit.SECONDS.toNanos(4);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private final SlidingWindowThrottle throttle =
+            new SlidingWindowThrottle(3, WINDOW, BASE_BACKOFF, MAX_BACKOFF, 1024, clock::get);
+
+    @Test
+    void rejectsRequestsOverTheLimit() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, throttle.tryAcquire("10.0.0.1"));
+        }
+        assertEquals(BASE_BACKOFF, throttle.tryAcquire("10.0.0.1"));
+        // 封禁期间返回剩余的等待时间
+        clock.addAndGet(BASE_BACKOFF / 2);
+        assertEquals(BASE_BACKOFF / 2, throttle.tryAcquire("10.0.0.1"));
+    }
+
+    @Test
+    void keysAreCountedSeparately() {
+        for (int i = 0; i < 3; i++) {
+            throttle.tryAcquire("10.0.0.1");
+        }
+        assertTrue(throttle.tryAcquire("10.0.0.1") > 0);
+        assertEquals(0L, throttle.tryAcquire("10.0.0.2"));
+    }
+
+    @Test
+    void backoffDoublesUpToTheMaximum() {
+        for (int i = 0; i < 3; i++) {
+            throttle.tryAcquire("10.0.0.1");
+        }
+        long expected = BASE_BACKOFF;
+        for (int strike = 0; strike < 5; strike++) {
+            long wait = throttle.tryAcquire("10.0.0.1");
+            assertEquals(expected, wait);
+            clock.addAndGet(wait);
+            expected = Math.min(expected * 2, MAX_BACKOFF);
+        }
+    }
+
+    @Test
+    void allowsAgainAfterTheWindowSlidesPast() {
+        for (int i = 0; i < 3; i++) {
+            throttle.tryAcquire("10.0.0.1");
+        }
+        assertTrue(throttle.tryAcquire("10.0.0.1") > 0);
+
+        clock.addAndGet(2 * WINDOW);
+        assertEquals(0L, throttle.tryAcquire("10.0.0.1"));
+    }
+
+    @Test
+    void checkDoesNotConsumeTheLimit() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0L, throttle.check("alice\n10.0.0.1"));
+        }
+        for (int i = 0; i < 3; i++) {
+            throttle.record("alice\n10.0.0.1");
+        }
+        assertEquals(BASE_BACKOFF, throttle.check("alice\n10.0.0.1"));
+        // 其他IP上的同一用户名不受影响
+        assertEquals(0L, throttle.check("alice\n10.0.0.2"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.common.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * JwtMinter单元测试
+ *
+ * 签发的令牌交给jjwt解析和验签，核对每个声明，覆盖需要转义和多字节编码的主题
+ */
+class JwtMinterTest {
+
+    private static final SecretKey KEY = new SecretKeySpec(
+            "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII), "HmacSHA256");
+
+    private static final List<String> ROLES = Arrays.asList("USER", "ADMIN");
+
+    private final JwtMinter minter = new JwtMinter(KEY);
+
+    /**
+     * 签发时间带毫秒，验证按秒截断；过期时间在未来，jjwt才能解析
+     */
+    private final long issuedAt = System.currentTimeMillis() / 1000 * 1000 + 123;
+
+    private final long expiration = issuedAt + 3_600_000;
+
+    private Claims parse(String token) {
+        return Jwts.parser().setSigningKey(KEY).parseClaimsJws(token).getBody();
+    }
+
+    private void assertRoundTrip(String subject, Long userId, List<String> roles) {
+        UUID id = UUID.randomUUID();
+        Claims claims = parse(minter.mint(subject, id, issuedAt, expiration, userId, roles));
+
+        assertEquals(subject, claims.getSubject());
+        assertEquals(id.toString(), claims.getId());
+        assertEquals(issuedAt / 1000 * 1000, claims.getIssuedAt().getTime());
+        assertEquals(expiration / 1000 * 1000, claims.getExpiration().getTime());
+        if (userId == null) {
+            assertFalse(claims.containsKey(VerifiedClaims.USER_ID_CLAIM));
+        } else {
+            assertEquals(userId.longValue(), ((Number) claims.get(VerifiedClaims.USER_ID_CLAIM)).longValue());
+        }
+        if (roles == null || roles.isEmpty()) {
+            assertFalse(claims.containsKey(VerifiedClaims.ROLES_CLAIM));
+        } else {
+            assertEquals(roles, claims.get(VerifiedClaims.ROLES_CLAIM));
+        }
+    }
+
+    @Test
+    void plainSubject() {
+        assertRoundTrip("alice", 42L, ROLES);
+    }
+
+    @Test
+    void subjectWithQuotesAndBackslashes() {
+        assertRoundTrip("a\"b\\c\\\"d\"", 42L, ROLES);
+    }
+
+    @Test
+    void subjectWithControlCharacters() {
+        assertRoundTrip("tab\tnewline\nnul\u0000unit\u001fcr\r", 42L, ROLES);
+    }
+
+    @Test
+    void subjectWithCjkAndSurrogatePairs() {
+        assertRoundTrip("张三", 42L, ROLES);
+        assertRoundTrip("é日本😀𝄞", 42L, ROLES);
+    }
+
+    @Test
+    void rolesAreEscapedLikeSubjects() {
+        assertRoundTrip("alice", 42L, Arrays.asList("ROLE\"QUOTED\"", "管理员", "back\\slash"));
+    }
+
+    @Test
+    void veryLongSubject() {
+        StringBuilder subject = new StringBuilder();
+        while (subject.length() < 20_000) {
+            subject.append("user-用户-😀-\"\\-");
+        }
+        assertRoundTrip(subject.toString(), 42L, ROLES);
+        // 缓冲区扩容后再签发短令牌，复用的缓冲区不能残留上一次的内容
+        assertRoundTrip("bob", 7L, ROLES);
+    }
+
+    @Test
+    void nullUserIdAndEmptyRolesAreOmitted() {
+        assertRoundTrip("alice", null, ROLES);
+        assertRoundTrip("alice", 42L, Collections.<String>emptyList());
+        assertRoundTrip("alice", null, null);
+    }
+
+    @Test
+    void nullSubjectIsOmitted() {
+        Claims claims = parse(minter.mint(null, UUID.randomUUID(), issuedAt, expiration, 42L, ROLES));
+        assertNull(claims.getSubject());
+    }
+
+    @Test
+    void loneSurrogateIsReplaced() {
+        // 与String.getBytes(UTF_8)一致，不成对的代理字符写成'?'
+        Claims claims = parse(minter.mint("a\uD800b\uDC00", UUID.randomUUID(), issuedAt, expiration, 42L, ROLES));
+        assertEquals("a?b?", claims.getSubject());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 捕获完整响应体的响应装饰器
+ *
+ * 网关把上游响应写给客户端时，先把响应体聚合成一个字节数组交给回调处理，
+ * 回调可以保存响应（用于缓存、请求合并等），并返回真正要写给客户端的内容。
+ * 只拦截普通的writeWith写出；流式响应（writeAndFlushWith）直接透传。
+ *
+ * 捕获的大小有上限：Content-Length超过上限，或者已收到的数据超过上限时，放弃捕获并通知溢出回调，
+ * 已暂存的数据和剩余的数据原样写给客户端，大响应不会被整个读进内存。
+ */
+public class BodyCapturingResponse extends ServerHttpResponseDecorator {
+
+    /**
+     * 最多捕获的响应体大小（字节）
+     */
+    private final int maxBodySize;
+
+    /**
+     * 响应体回调：参数为当前响应和完整响应体，返回写给客户端的响应体
+     */
+    private final BiFunction<ServerHttpResponse, byte[], byte[]> bodyHandler;
+
+    /**
+     * 溢出回调：响应体超过上限、放弃捕获时调用，此时响应头尚未写出
+     */
+    private final Consumer<ServerHttpResponse> overflowHandler;
+
+    public BodyCapturingResponse(ServerHttpResponse delegate, int maxBodySize,
+                                 BiFunction<ServerHttpResponse, byte[], byte[]> bodyHandler,
+                                 Consumer<ServerHttpResponse> overflowHandler) {
+        super(delegate);
+        this.maxBodySize = maxBodySize;
+        this.bodyHandler = bodyHandler;
+        this.overflowHandler = overflowHandler;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (getDelegate().getHeaders().getContentLength() > maxBodySize) {
+            overflowHandler.accept(this);
+            return getDelegate().writeWith(body);
+        }
+        Capture capture = new Capture();
+        Flux<DataBuffer> output = Flux.<DataBuffer>from(body)
+                .concatMapIterable(capture::onNext)
+                .concatWith(Flux.defer(capture::onComplete))
+                .doFinally(signal -> {
+                    if (signal != SignalType.ON_COMPLETE) {
+                        capture.release();
+                    }
+                });
+        return getDelegate().writeWith(output);
+    }
+
+    /**
+     * 单次写出的捕获状态
+     *
+     * 写给客户端的数据流只有在溢出或上游结束时才发出第一个元素，
+     * 在那之前响应头还没有提交，回调仍然可以修改状态码和响应头
+     */
+    private final class Capture {
+
+        /**
+         * 暂存的数据，溢出或结束后为null
+         */
+        private List<DataBuffer> held = new ArrayList<>();
+
+        private long size;
+
+        synchronized List<DataBuffer> onNext(DataBuffer buffer) {
+            if (held == null) {
+                return Collections.singletonList(buffer);  // 已经溢出，直接透传
+            }
+            held.add(buffer);
+            size += buffer.readableByteCount();
+            if (size <= maxBodySize) {
+                return Collections.emptyList();
+            }
+            List<DataBuffer> pending = held;
+            held = null;
+            overflowHandler.accept(BodyCapturingResponse.this);
+            return pending;
+        }
+
+        synchronized Flux<DataBuffer> onComplete() {
+            if (held == null) {
+                return Flux.empty();
+            }
+            byte[] bytes = new byte[(int) size];
+            int position = 0;
+            for (DataBuffer buffer : held) {
+                int length = buffer.readableByteCount();
+                buffer.read(bytes, position, length);
+                position += length;
+                DataBufferUtils.release(buffer);
+            }
+            held = null;
+
+            byte[] output = bodyHandler.apply(BodyCapturingResponse.this, bytes);
+            HttpHeaders headers = getDelegate().getHeaders();
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            if (getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+            } else {
+                headers.setContentLength(output.length);
+            }
+            return output.length == 0 ? Flux.empty() : Flux.just(bufferFactory().wrap(output));
+        }
+
+        /**
+         * 出错或取消时释放暂存的数据
+         */
+        synchronized void release() {
+            if (held != null) {
+                held.forEach(DataBufferUtils::release);
+                held = null;
+            }
+        }
+    }
+}
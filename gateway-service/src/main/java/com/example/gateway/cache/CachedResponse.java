@@ -0,0 +1,111 @@
+package com.example.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * 缓冲在网关内存中的完整响应
+ *
+ * 保存上游响应的状态码、响应头和响应体，可以多次写回给不同的客户端。
+ * 创建时会确定一个ETag：优先使用上游返回的ETag，否则根据响应体的MD5生成。
+ */
+public final class CachedResponse {
+
+    private final int status;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    private final String etag;
+
+    private CachedResponse(int status, HttpHeaders headers, byte[] body, String etag) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.etag = etag;
+    }
+
+    /**
+     * 根据上游响应和完整响应体创建缓冲响应
+     *
+     * @param response 上游响应（此时状态码和响应头已确定）
+     * @param body 完整响应体
+     * @return 缓冲响应
+     */
+    public static CachedResponse of(ServerHttpResponse response, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        // 逐跳头和长度由写出时重新确定
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.remove(HttpHeaders.CONNECTION);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+
+        String etag = headers.getETag();
+        if (etag == null) {
+            etag = "\"0" + DigestUtils.md5DigestAsHex(body) + "\"";
+            headers.setETag(etag);
+        }
+        HttpStatus status = response.getStatusCode();
+        return new CachedResponse(status != null ? status.value() : HttpStatus.OK.value(),
+                HttpHeaders.readOnlyHttpHeaders(headers), body, etag);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * 判断客户端的If-None-Match是否与当前ETag匹配
+     *
+     * @param requestHeaders 客户端请求头
+     * @return 匹配时返回true，此时可以直接返回304
+     */
+    public boolean matchesIfNoneMatch(HttpHeaders requestHeaders) {
+        for (String candidate : requestHeaders.getIfNoneMatch()) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * 把缓冲响应写回给客户端
+     *
+     * @param response 客户端响应
+     * @param notModified 是否只返回304而不写响应体
+     * @return 写出完成的信号
+     */
+    public Mono<Void> writeTo(ServerHttpResponse response, boolean notModified) {
+        HttpHeaders target = response.getHeaders();
+        target.putAll(headers);
+        if (notModified) {
+            response.setRawStatusCode(HttpStatus.NOT_MODIFIED.value());
+            target.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setRawStatusCode(status);
+        target.setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
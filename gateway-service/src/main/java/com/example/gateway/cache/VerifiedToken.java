@@ -0,0 +1,32 @@
+package com.example.gateway.cache;
+
+import com.example.common.util.VerifiedClaims;
+
+/**
+ * 验证通过的令牌
+ *
+ * 保存令牌的声明，以及根据声明签好的内部声明头。两者一起缓存，
+ * 令牌命中缓存时既不需要校验JWT签名，也不需要重新计算内部声明头的MAC。
+ */
+public final class VerifiedToken {
+
+    private final VerifiedClaims claims;
+
+    /**
+     * 转发给下游服务的内部声明头，未配置内部密钥时为null
+     */
+    private final String internalClaimsHeader;
+
+    public VerifiedToken(VerifiedClaims claims, String internalClaimsHeader) {
+        this.claims = claims;
+        this.internalClaimsHeader = internalClaimsHeader;
+    }
+
+    public VerifiedClaims getClaims() {
+        return claims;
+    }
+
+    public String getInternalClaimsHeader() {
+        return internalClaimsHeader;
+    }
+}
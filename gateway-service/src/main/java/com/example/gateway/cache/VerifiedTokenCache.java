@@ -0,0 +1,172 @@
+package com.example.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验证令牌缓存
+ *
+ * 网关上同一个JWT令牌会在一次会话中被反复携带，每次都重新校验HMAC签名和解析载荷
+ * 会消耗大量Netty事件循环线程的CPU。该缓存保存验证通过的令牌结果，重复出现的令牌
+ * 可以直接命中缓存，跳过签名校验。
+ *
+ * 设计要点:
+ * 1. 以令牌的SHA-256摘要作为键，内存中不保留原始令牌
+ * 2. 条目的存活时间不超过配置的上限，也不超过令牌自身的过期时间(exp)
+ * 3. 条目数量有上限，超出后由Caffeine按W-TinyLFU策略淘汰
+ * 4. 命中、未命中、淘汰等指标通过Micrometer暴露到actuator
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * 缓存名称，用作actuator指标中的cache标签
+     */
+    private static final String CACHE_NAME = "gateway.verified-tokens";
+
+    /**
+     * 每个线程复用一个SHA-256摘要实例，MessageDigest本身不是线程安全的
+     */
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * 底层Caffeine缓存
+     */
+    private final Cache<TokenKey, VerifiedToken> cache;
+
+    /**
+     * 构造函数
+     *
+     * @param meterRegistry 指标注册表，用于暴露缓存统计信息
+     * @param maxSize 最多缓存的令牌数量
+     * @param maxTtlSeconds 单个条目的最长存活时间（秒）
+     */
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${gateway.token-cache.max-size:100000}") long maxSize,
+                              @Value("${gateway.token-cache.max-ttl:300}") long maxTtlSeconds) {
+        final long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<TokenKey, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(TokenKey key, VerifiedToken value, long currentTime) {
+                        // 存活时间取配置上限与令牌剩余有效期中的较小值
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(
+                                value.getClaims().getExpiration() - System.currentTimeMillis());
+                        return Math.max(0L, Math.min(maxTtlNanos, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenKey key, VerifiedToken value,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenKey key, VerifiedToken value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;  // 读取不延长存活时间
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 查询令牌是否已经验证过
+     *
+     * @param token JWT令牌
+     * @return 缓存的验证结果；未命中或已过期时返回null
+     */
+    public VerifiedToken get(String token) {
+        VerifiedToken cached = cache.getIfPresent(TokenKey.of(token));
+        if (cached != null && cached.getClaims().isExpired()) {
+            return null;  // Caffeine的过期清理是惰性的，这里再做一次精确判断
+        }
+        return cached;
+    }
+
+    /**
+     * 缓存一个验证通过的令牌
+     *
+     * @param token JWT令牌
+     * @param verified 验证通过后得到的声明及内部声明头
+     */
+    public void put(String token, VerifiedToken verified) {
+        if (verified.getClaims().isExpired()) {
+            return;  // 已过期的令牌没有缓存价值
+        }
+        cache.put(TokenKey.of(token), verified);
+    }
+
+    /**
+     * 当前缓存的条目数（近似值）
+     *
+     * @return 条目数
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 缓存键：令牌SHA-256摘要的前128位
+     *
+     * 用两个long保存，避免把原始令牌长期留在堆内存中，也让键的比较和哈希足够便宜
+     */
+    static final class TokenKey {
+        private final long high;
+        private final long low;
+
+        private TokenKey(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        static TokenKey of(String token) {
+            byte[] digest = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+            return new TokenKey(toLong(digest, 0), toLong(digest, 8));
+        }
+
+        private static long toLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (bytes[i] & 0xFF);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TokenKey)) {
+                return false;
+            }
+            TokenKey other = (TokenKey) o;
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (high ^ (high >>> 32));
+        }
+    }
+}
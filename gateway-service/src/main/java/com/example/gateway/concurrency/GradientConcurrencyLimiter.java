@@ -0,0 +1,158 @@
+package com.example.gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于RTT梯度的自适应并发限制器
+ *
+ * 与固定并发上限不同，该限制器根据观测到的响应时间动态调整允许的并发数（参考Netflix
+ * concurrency-limits中的Gradient2算法）：
+ * 1. 维护RTT的长期指数移动平均，作为服务“正常”时的延迟基线
+ * 2. 每个样本计算梯度 = 容忍系数 × 长期RTT / 当前RTT，限制在[0.5, 1]之间；
+ *    延迟上升（出现排队）时梯度小于1，并发上限随之收缩
+ * 3. 新上限 = 当前上限 × 梯度 + 排队余量(√上限)，再做平滑，结果限定在[最小值, 最大值]之间
+ * 4. 上游返回5xx或出错时按固定比例回退
+ * 5. 进行中请求数不到上限一半时不调整，避免低流量时上限无意义地增长
+ *
+ * 获取许可是一个CAS循环，不会阻塞：超过上限时立即失败，由调用方快速返回503。
+ */
+public class GradientConcurrencyLimiter {
+
+    /**
+     * 出错时的回退比例
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    /**
+     * 平滑系数，取值(0, 1]，越小调整越平缓
+     */
+    private final double smoothing;
+
+    /**
+     * RTT容忍系数，当前RTT不超过长期RTT的该倍数时不收缩
+     */
+    private final double rttTolerance;
+
+    /**
+     * 长期RTT移动平均的权重
+     */
+    private final double longRttAlpha;
+
+    /**
+     * 进行中的请求数
+     */
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    /**
+     * 当前并发上限，只在 onSample 中修改
+     */
+    private volatile double limit;
+
+    /**
+     * 长期RTT（纳秒），0表示还没有样本
+     */
+    private double longRtt;
+
+    /**
+     * 构造函数
+     *
+     * @param initialLimit 初始并发上限
+     * @param minLimit 最小并发上限
+     * @param maxLimit 最大并发上限
+     * @param smoothing 平滑系数
+     * @param rttTolerance RTT容忍系数
+     * @param longWindow 长期RTT移动平均的样本窗口
+     */
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double smoothing, double rttTolerance, int longWindow) {
+        if (minLimit <= 0 || maxLimit < minLimit || smoothing <= 0 || smoothing > 1
+                || rttTolerance < 1 || longWindow <= 0) {
+            throw new IllegalArgumentException("Invalid concurrency limiter settings");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longRttAlpha = 2.0 / (longWindow + 1);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * 尝试获取一个并发许可
+     *
+     * @return 获取成功返回true，此时调用方必须在请求结束后调用 onSample 或 release
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放许可但不计入样本（例如客户端取消请求）
+     */
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * 释放许可并根据本次请求的结果调整并发上限
+     *
+     * @param rttNanos 本次请求的耗时（纳秒）
+     * @param dropped 上游是否出错或过载
+     */
+    public void onSample(long rttNanos, boolean dropped) {
+        int current = inflight.getAndDecrement();
+        synchronized (this) {
+            double currentLimit = limit;
+            double newLimit;
+            if (dropped) {
+                newLimit = currentLimit * BACKOFF_RATIO;
+            } else {
+                if (rttNanos <= 0) {
+                    return;
+                }
+                longRtt = longRtt == 0 ? rttNanos : longRtt * (1 - longRttAlpha) + rttNanos * longRttAlpha;
+                if (longRtt / rttNanos > 2) {
+                    // 延迟已经持续恢复，让基线更快跟上，避免长时间保持在过高的水平
+                    longRtt *= 0.95;
+                }
+                if (current < currentLimit / 2) {
+                    return;
+                }
+                double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / rttNanos));
+                newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+            }
+            newLimit = currentLimit * (1 - smoothing) + newLimit * smoothing;
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        }
+    }
+
+    /**
+     * 当前并发上限
+     *
+     * @return 并发上限
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * 当前进行中的请求数
+     *
+     * @return 进行中的请求数
+     */
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 请求合并配置
+ *
+ * 对应配置文件中的 gateway.coalescing。只有在 routes 下列出的路由ID才会合并
+ * 并发的相同GET请求。
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public class CoalescingProperties {
+
+    /**
+     * 按路由ID配置的合并策略
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 单个路由的合并策略
+     */
+    public static class Route {
+
+        /**
+         * 是否启用请求合并
+         */
+        private boolean enabled = true;
+
+        /**
+         * 跟随请求等待首个请求结果的最长时间，超时后自行请求上游
+         */
+        private Duration maxWait = Duration.ofSeconds(2);
+
+        /**
+         * 可共享的最大响应体大小（字节），超过时跟随请求自行请求上游
+         */
+        private int maxBodySize = 256 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(int maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+    }
+}
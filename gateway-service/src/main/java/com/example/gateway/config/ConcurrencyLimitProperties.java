@@ -0,0 +1,144 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 自适应并发限制配置
+ *
+ * 对应配置文件中的 gateway.concurrency-limit。只有在 routes 下列出的路由ID才会限制并发，
+ * priority-paths 中的路径属于高优先级流量，始终放行。
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * 高优先级路径，不受并发限制，支持 * 和结尾的 **
+     */
+    private List<String> priorityPaths = new ArrayList<>(Arrays.asList("/auth/login", "/actuator/**"));
+
+    /**
+     * 按路由ID配置的并发限制策略
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public List<String> getPriorityPaths() {
+        return priorityPaths;
+    }
+
+    public void setPriorityPaths(List<String> priorityPaths) {
+        this.priorityPaths = priorityPaths;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 单个路由的并发限制策略
+     */
+    public static class Route {
+
+        /**
+         * 是否启用并发限制
+         */
+        private boolean enabled = true;
+
+        /**
+         * 初始并发上限
+         */
+        private int initialLimit = 20;
+
+        /**
+         * 最小并发上限
+         */
+        private int minLimit = 5;
+
+        /**
+         * 最大并发上限
+         */
+        private int maxLimit = 200;
+
+        /**
+         * 平滑系数，取值(0, 1]，越小调整越平缓
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * RTT容忍系数，当前RTT不超过长期RTT的该倍数时不收缩
+         */
+        private double rttTolerance = 1.5;
+
+        /**
+         * 长期RTT移动平均的样本窗口
+         */
+        private int longWindow = 600;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public double getRttTolerance() {
+            return rttTolerance;
+        }
+
+        public void setRttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+        }
+
+        public int getLongWindow() {
+            return longWindow;
+        }
+
+        public void setLongWindow(int longWindow) {
+            this.longWindow = longWindow;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对冲请求配置
+ *
+ * 对应配置文件中的 gateway.hedging。对冲需要显式按路由启用，
+ * 只适用于幂等的GET请求。
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+
+    /**
+     * 重新计算对冲等待时间的间隔
+     */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    /**
+     * 按路由ID配置的对冲策略
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 单个路由的对冲策略
+     */
+    public static class Route {
+
+        /**
+         * 是否启用对冲
+         */
+        private boolean enabled = true;
+
+        /**
+         * 对冲等待时间取上一窗口首个请求耗时的该分位数
+         */
+        private double percentile = 0.95;
+
+        /**
+         * 样本不足时使用的对冲等待时间
+         */
+        private Duration initialDelay = Duration.ofMillis(50);
+
+        /**
+         * 对冲等待时间的下限
+         */
+        private Duration minDelay = Duration.ofMillis(5);
+
+        /**
+         * 对冲等待时间的上限
+         */
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        /**
+         * 对冲请求最多占总请求数的百分比
+         */
+        private double budgetPercent = 5;
+
+        /**
+         * 最多积累的对冲令牌数
+         */
+        private int maxBurst = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getMaxBurst() {
+            return maxBurst;
+        }
+
+        public void setMaxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+        }
+    }
+}
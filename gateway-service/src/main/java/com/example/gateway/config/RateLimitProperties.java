@@ -0,0 +1,89 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 网关本地限流配置
+ *
+ * 对应配置文件中的 gateway.rate-limit。限流按路由启用，
+ * 只有在 routes 下列出的路由ID才会按用户限流。
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 每个路由最多保留的令牌桶数量，超出后按W-TinyLFU策略淘汰
+     */
+    private long maxBuckets = 1_000_000L;
+
+    /**
+     * 按路由ID配置的限流策略
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 单个路由的限流策略
+     */
+    public static class Route {
+
+        /**
+         * 是否启用限流
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每个用户每秒补充的令牌数，即长期平均允许的请求速率
+         */
+        private double replenishRate = 10;
+
+        /**
+         * 令牌桶容量，即允许的最大突发请求数
+         */
+        private int burstCapacity = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
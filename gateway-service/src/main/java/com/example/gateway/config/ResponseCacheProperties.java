@@ -0,0 +1,90 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 网关响应缓存配置
+ *
+ * 对应配置文件中的 gateway.response-cache。缓存按路由启用，
+ * 只有在 routes 下列出的路由ID才会缓存GET响应。
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * 所有缓存响应体的总大小上限（字节），超出后按W-TinyLFU策略淘汰
+     */
+    private long maxWeight = 64L * 1024 * 1024;
+
+    /**
+     * 按路由ID配置的缓存策略
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 单个路由的缓存策略
+     */
+    public static class Route {
+
+        /**
+         * 是否启用缓存
+         */
+        private boolean enabled = true;
+
+        /**
+         * 缓存条目的存活时间
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * 可缓存的最大响应体大小（字节），超过的响应直接透传不缓存
+         */
+        private int maxBodySize = 256 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(int maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+    }
+}
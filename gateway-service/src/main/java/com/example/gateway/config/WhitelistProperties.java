@@ -0,0 +1,39 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 网关白名单配置
+ *
+ * 对应配置文件中的 gateway.security.whitelist，列出不需要JWT令牌验证即可访问的路径，
+ * 通常包括登录接口、注册接口、公开资源等。
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.security")
+public class WhitelistProperties {
+
+    /**
+     * 白名单路径模式列表，支持 * 和结尾的 **
+     * 未配置时默认放行登录、刷新令牌、退出登录接口和健康检查端点，
+     * metrics等其他Actuator端点会暴露内部指标，需要携带令牌访问
+     */
+    private List<String> whitelist = new ArrayList<>(Arrays.asList(
+            "/auth/login",
+            "/auth/refresh",
+            "/auth/revoke",
+            "/actuator/health/**"
+    ));
+
+    public List<String> getWhitelist() {
+        return whitelist;
+    }
+
+    public void setWhitelist(List<String> whitelist) {
+        this.whitelist = whitelist;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.concurrency.GradientConcurrencyLimiter;
+import com.example.gateway.config.ConcurrencyLimitProperties;
+import com.example.gateway.support.PathPatternTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 自适应并发限制（削峰）过滤器
+ *
+ * 下游服务变慢时，如果网关继续无限制地转发并发请求，请求会在下游排队，
+ * 延迟进一步升高，最终由“变慢”演变为“不可用”。该过滤器为每个路由维护一个
+ * GradientConcurrencyLimiter，根据上游响应时间动态调整允许的并发数，
+ * 超出上限的请求立即返回503，而不是排队等待。
+ *
+ * 高优先级路径（默认是 /auth/login 和 /actuator/**）不受限制，保证登录和健康检查始终可用。
+ * 每个路由的当前上限、进行中请求数和拒绝次数通过 gateway.concurrency.* 指标暴露。
+ */
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 高优先级路径匹配树
+     */
+    private final PathPatternTrie priorityPaths;
+
+    /**
+     * 按路由ID保存的限制器，启动时根据配置创建，之后只读
+     */
+    private final Map<String, RouteLimiter> limiters = new HashMap<>();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.priorityPaths = new PathPatternTrie(properties.getPriorityPaths());
+        for (Map.Entry<String, ConcurrencyLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            if (entry.getValue().isEnabled()) {
+                limiters.put(entry.getKey(), new RouteLimiter(entry.getKey(), entry.getValue(), meterRegistry));
+            }
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        RouteLimiter routeLimiter = limiters.get(route.getId());
+        if (routeLimiter == null || priorityPaths.matches(exchange.getRequest().getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+
+        GradientConcurrencyLimiter limiter = routeLimiter.limiter;
+        if (!limiter.tryAcquire()) {
+            routeLimiter.rejected.increment();
+            return serviceUnavailable(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limiter.release();  // 客户端断开，耗时不代表上游的真实延迟
+                        return;
+                    }
+                    limiter.onSample(System.nanoTime() - start, signal == SignalType.ON_ERROR || isOverloaded(exchange));
+                });
+    }
+
+    /**
+     * 上游返回502/503/504时视为过载
+     */
+    private static boolean isOverloaded(ServerWebExchange exchange) {
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status != null && (status == HttpStatus.BAD_GATEWAY.value()
+                || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    /**
+     * 设置过载响应
+     *
+     * 超出并发上限时直接返回503 Service Unavailable
+     *
+     * @param exchange Web交换对象
+     * @return 完成的响应
+     */
+    private Mono<Void> serviceUnavailable(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        return response.setComplete();
+    }
+
+    /**
+     * 获取过滤器执行顺序
+     *
+     * 在响应缓存(-50)和请求合并(-40)之后执行，只有真正要转发到上游的请求才占用并发许可，
+     * 采集到的耗时也只反映上游的延迟
+     *
+     * @return 过滤器顺序值
+     */
+    @Override
+    public int getOrder() {
+        return -30;
+    }
+
+    /**
+     * 单个路由的限制器及其指标
+     */
+    private static final class RouteLimiter {
+        private final GradientConcurrencyLimiter limiter;
+        private final Counter rejected;
+
+        private RouteLimiter(String routeId, ConcurrencyLimitProperties.Route settings, MeterRegistry meterRegistry) {
+            this.limiter = new GradientConcurrencyLimiter(settings.getInitialLimit(), settings.getMinLimit(),
+                    settings.getMaxLimit(), settings.getSmoothing(), settings.getRttTolerance(),
+                    settings.getLongWindow());
+            this.rejected = Counter.builder("gateway.concurrency.rejected")
+                    .description("Requests rejected by the adaptive concurrency limiter")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.concurrency.limit", limiter, GradientConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.concurrency.inflight", limiter, GradientConcurrencyLimiter::getInflight)
+                    .description("Requests currently forwarded upstream")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.gateway.filter;
+
+import com.example.common.loadbalancer.LatencyAwareLoadBalancer;
+import com.example.gateway.config.HedgingProperties;
+import com.example.gateway.hedging.HedgeBudget;
+import com.example.gateway.support.LatencyHistogram;
+import com.example.gateway.support.RequestKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求过滤器
+ *
+ * 某个实例发生一次GC停顿，落到它上面的请求就会直接出现在p99里。对启用了对冲的路由，
+ * GET请求先发给负载均衡器选出的实例；如果超过对冲等待时间仍未响应，再向另一个实例
+ * 发出相同的请求，先返回的响应写给客户端，另一个请求被取消。
+ *
+ * 设计要点:
+ * 1. 对冲等待时间取该路由上一个统计窗口内首个请求耗时的分位数（默认p95），
+ *    并限定在[min-delay, max-delay]之间，样本不足时使用initial-delay
+ * 2. 对冲请求受HedgeBudget限制，最多占总请求数的 budget-percent，避免下游变慢时放大流量
+ * 3. 第二个实例优先选择LatencyAwareLoadBalancer中代价最小的其他实例，否则随机选择
+ * 4. 只比较响应头到达的先后：胜出的响应体边收边转发给客户端，不在网关内存中缓冲，
+ *    落败的请求被取消；若两者几乎同时到达，落败响应的响应体被读完丢弃以归还连接
+ * 5. 上游调用复用网关的HttpClient（spring.cloud.gateway.httpclient 的连接池、连接超时等配置），
+ *    并与NettyRoutingFilter一样应用全局或路由级的响应超时，超时返回504
+ * 6. 决定对冲后才标记为已路由并由该过滤器自己写出响应，NettyRoutingFilter不会再转发一次
+ * 7. 流式请求（Accept为NDJSON或SSE）不对冲，交给NettyRoutingFilter正常转发
+ *
+ * 每个路由的对冲情况通过 gateway.hedging.requests 指标暴露。
+ */
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 计算分位数所需的最少样本数
+     */
+    private static final long MIN_SAMPLES = 100;
+
+    private final LoadBalancerClientFactory clientFactory;
+
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+
+    private final HttpClientProperties httpClientProperties;
+
+    /**
+     * 按路由ID保存的对冲状态，启动时根据配置创建，之后只读
+     */
+    private final Map<String, RouteHedging> routes = new HashMap<>();
+
+    public HedgingFilter(HedgingProperties properties, WebClient.Builder webClientBuilder,
+                         HttpClient httpClient, HttpClientProperties httpClientProperties,
+                         LoadBalancerClientFactory clientFactory,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                         MeterRegistry meterRegistry) {
+        this.clientFactory = clientFactory;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.httpClientProperties = httpClientProperties;
+        // 与NettyRoutingFilter共用网关的HttpClient，连接池和连接超时配置保持一致
+        WebClient webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        long refreshNanos = properties.getRefreshInterval().toNanos();
+        for (Map.Entry<String, HedgingProperties.Route> entry : properties.getRoutes().entrySet()) {
+            if (entry.getValue().isEnabled()) {
+                routes.put(entry.getKey(), new RouteHedging(entry.getKey(), entry.getValue(), refreshNanos,
+                        webClient, meterRegistry));
+            }
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET || ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+            return chain.filter(exchange);
+        }
+        if (RequestKeys.isStreaming(exchange.getRequest())) {
+            return chain.filter(exchange);  // 流式响应的耗时取决于数据量，对冲会让两个实例各生成一遍
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RouteHedging hedging = route != null ? routes.get(route.getId()) : null;
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (hedging == null || requestUrl == null || chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);  // 只对经过负载均衡的路由对冲
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(HttpHeadersFilter.filterRequest(headersFiltersProvider.getIfAvailable(), exchange));
+        headers.remove(HttpHeaders.HOST);  // 由WebClient按目标实例重新设置
+        Duration responseTimeout = responseTimeout(route);
+
+        // 从这里开始由该过滤器负责转发和写出响应
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        hedging.budget.onRequest();
+        long start = System.nanoTime();
+        ServiceInstance primaryInstance = chosen.getServer();
+        AtomicBoolean decided = new AtomicBoolean();
+        Mono<Upstream> primary = hedging.call(requestUrl, headers, false, responseTimeout, decided)
+                .doOnSuccess(upstream -> hedging.latencies.record(System.nanoTime() - start))
+                .doOnCancel(() -> hedging.latencies.record(System.nanoTime() - start));
+
+        AtomicBoolean hedged = new AtomicBoolean();
+        Mono<Upstream> hedge = Mono.delay(Duration.ofNanos(hedging.currentDelay(start)))
+                .flatMap(tick -> alternateInstance(primaryInstance))
+                .filter(instance -> {
+                    if (hedging.budget.tryHedge()) {
+                        return true;
+                    }
+                    hedging.budgetExhausted.increment();
+                    return false;
+                })
+                .flatMap(instance -> {
+                    hedged.set(true);
+                    hedging.hedged.increment();
+                    URI hedgeUrl = LoadBalancerUriTools.reconstructURI(instance, requestUrl);
+                    return hedging.call(hedgeUrl, headers, true, responseTimeout, decided);
+                });
+
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class, HedgingFilter::upstreamError)
+                .flatMap(upstream -> {
+                    if (upstream.fromHedge) {
+                        hedging.hedgeWon.increment();
+                    } else if (!hedged.get()) {
+                        hedging.primaryOnly.increment();
+                    }
+                    return write(exchange, upstream);
+                });
+    }
+
+    /**
+     * 获取响应超时，与NettyRoutingFilter一致：路由元数据中的 response-timeout（毫秒，负数表示不限制）
+     * 优先，否则使用 spring.cloud.gateway.httpclient.response-timeout
+     */
+    private Duration responseTimeout(Route route) {
+        Object routeTimeout = route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR);
+        if (routeTimeout instanceof Number) {
+            long millis = ((Number) routeTimeout).longValue();
+            return millis >= 0 ? Duration.ofMillis(millis) : null;
+        }
+        return httpClientProperties.getResponseTimeout();
+    }
+
+    /**
+     * 两个请求都没有结果时，Mono.firstWithValue 把各自的错误包装在NoSuchElementException中，
+     * 取出其中的上游错误（例如超时对应的504），找不到时返回原异常
+     */
+    private static Throwable upstreamError(NoSuchElementException e) {
+        List<Throwable> candidates = new ArrayList<>();
+        if (e.getCause() != null) {
+            candidates.add(e.getCause());
+            candidates.addAll(Arrays.asList(e.getCause().getSuppressed()));
+        }
+        candidates.addAll(Arrays.asList(e.getSuppressed()));
+        for (Throwable candidate : candidates) {
+            if (candidate instanceof ResponseStatusException) {
+                return candidate;
+            }
+        }
+        return e;
+    }
+
+    /**
+     * 为对冲请求选择另一个实例
+     */
+    private Mono<ServiceInstance> alternateInstance(ServiceInstance primary) {
+        String serviceId = primary.getServiceId();
+        ServiceInstanceListSupplier supplier = clientFactory.getInstance(serviceId, ServiceInstanceListSupplier.class);
+        if (supplier == null) {
+            return Mono.empty();
+        }
+        ReactiveLoadBalancer<ServiceInstance> loadBalancer = clientFactory.getInstance(serviceId);
+        return supplier.get().next().flatMap(instances -> {
+            List<ServiceInstance> others = new ArrayList<>(instances.size());
+            for (ServiceInstance instance : instances) {
+                if (!sameInstance(instance, primary)) {
+                    others.add(instance);
+                }
+            }
+            if (others.isEmpty()) {
+                return Mono.empty();
+            }
+            if (loadBalancer instanceof LatencyAwareLoadBalancer) {
+                LatencyAwareLoadBalancer latencyAware = (LatencyAwareLoadBalancer) loadBalancer;
+                ServiceInstance best = others.get(0);
+                for (ServiceInstance candidate : others) {
+                    if (latencyAware.cost(candidate) < latencyAware.cost(best)) {
+                        best = candidate;
+                    }
+                }
+                return Mono.just(best);
+            }
+            return Mono.just(others.get(ThreadLocalRandom.current().nextInt(others.size())));
+        });
+    }
+
+    private static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+        return a.getHost().equals(b.getHost()) && a.getPort() == b.getPort();
+    }
+
+    /**
+     * 把胜出的上游响应写给客户端，响应体边收边写
+     */
+    private Mono<Void> write(ServerWebExchange exchange, Upstream upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setRawStatusCode(upstream.status);
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFiltersProvider.getIfAvailable(), upstream.headers,
+                exchange, HttpHeadersFilter.Type.RESPONSE);
+        HttpHeaders target = response.getHeaders();
+        target.putAll(filtered);
+        target.remove(HttpHeaders.TRANSFER_ENCODING);  // 没有Content-Length时由服务端重新分块
+        return response.writeWith(upstream.body);
+    }
+
+    /**
+     * 获取过滤器执行顺序
+     *
+     * 在ReactiveLoadBalancerClientFilter(10150)选定实例之后、NettyRoutingFilter之前执行
+     *
+     * @return 过滤器顺序值
+     */
+    @Override
+    public int getOrder() {
+        return 10200;
+    }
+
+    /**
+     * 已收到响应头的上游响应，响应体尚未读取
+     */
+    private static final class Upstream {
+        private final int status;
+        private final HttpHeaders headers;
+        private final Flux<DataBuffer> body;
+        private final boolean fromHedge;
+
+        private Upstream(int status, HttpHeaders headers, Flux<DataBuffer> body, boolean fromHedge) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.fromHedge = fromHedge;
+        }
+    }
+
+    /**
+     * 单个路由的对冲状态
+     */
+    private static final class RouteHedging {
+        private final HedgingProperties.Route settings;
+        private final long refreshNanos;
+        private final WebClient webClient;
+        private final HedgeBudget budget;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final Counter primaryOnly;
+        private final Counter hedged;
+        private final Counter hedgeWon;
+        private final Counter budgetExhausted;
+
+        /**
+         * 当前对冲等待时间（纳秒）
+         */
+        private volatile long delayNanos;
+
+        /**
+         * 下一次重新计算等待时间的时刻
+         */
+        private final AtomicLong nextRefresh;
+
+        private RouteHedging(String routeId, HedgingProperties.Route settings, long refreshNanos,
+                             WebClient webClient, MeterRegistry meterRegistry) {
+            this.settings = settings;
+            this.refreshNanos = refreshNanos;
+            this.webClient = webClient;
+            this.budget = new HedgeBudget(settings.getBudgetPercent(), settings.getMaxBurst());
+            this.delayNanos = clamp(settings.getInitialDelay().toNanos());
+            this.nextRefresh = new AtomicLong(System.nanoTime() + refreshNanos);
+            this.primaryOnly = counter(meterRegistry, routeId, "primary");
+            this.hedged = counter(meterRegistry, routeId, "hedged");
+            this.hedgeWon = counter(meterRegistry, routeId, "hedge_won");
+            this.budgetExhausted = counter(meterRegistry, routeId, "budget_exhausted");
+        }
+
+        /**
+         * 获取当前对冲等待时间，每个统计窗口结束时由一个请求负责重新计算
+         */
+        long currentDelay(long now) {
+            long next = nextRefresh.get();
+            if (now - next >= 0 && nextRefresh.compareAndSet(next, now + refreshNanos)) {
+                long quantile = latencies.rollover(settings.getPercentile(), MIN_SAMPLES);
+                if (quantile > 0) {
+                    delayNanos = clamp(quantile);
+                }
+            }
+            return delayNanos;
+        }
+
+        private long clamp(long nanos) {
+            return Math.max(settings.getMinDelay().toNanos(), Math.min(settings.getMaxDelay().toNanos(), nanos));
+        }
+
+        /**
+         * 发出一次上游请求，收到响应头即返回
+         *
+         * @param decided 同一次对冲中两个请求共享的标记，只有先收到响应头的请求返回结果；
+         *                另一个请求随后收到响应头时读完并释放响应体，返回空
+         */
+        Mono<Upstream> call(URI uri, HttpHeaders headers, boolean fromHedge, Duration responseTimeout,
+                            AtomicBoolean decided) {
+            Mono<ResponseEntity<Flux<DataBuffer>>> response = webClient.get()
+                    .uri(uri)
+                    .headers(target -> target.addAll(headers))
+                    .retrieve()
+                    .onRawStatus(status -> true, upstream -> Mono.empty())  // 任何状态码都原样转发，不转换为异常
+                    .toEntityFlux(DataBuffer.class);
+            if (responseTimeout != null) {
+                response = response.timeout(responseTimeout, Mono.error(() -> new ResponseStatusException(
+                        HttpStatus.GATEWAY_TIMEOUT, "Response took longer than timeout: " + responseTimeout)));
+            }
+            return response.flatMap(entity -> {
+                if (!decided.compareAndSet(false, true)) {
+                    entity.getBody().subscribe(DataBufferUtils::release, error -> { });
+                    return Mono.empty();
+                }
+                return Mono.just(new Upstream(entity.getStatusCodeValue(), entity.getHeaders(),
+                        entity.getBody(), fromHedge));
+            });
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String routeId, String result) {
+            return Counter.builder("gateway.hedging.requests")
+                    .description("Hedged GET requests per route")
+                    .tag("route", routeId)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package com.example.gateway.filter;
 
+import com.example.common.security.InternalClaims;
+import com.example.common.security.InternalClaimsCodec;
 import com.example.common.util.JwtUtil;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.example.common.util.VerifiedClaims;
+import com.example.gateway.cache.VerifiedToken;
+import com.example.gateway.cache.VerifiedTokenCache;
+import com.example.gateway.config.WhitelistProperties;
+import com.example.gateway.revocation.TokenRevocationList;
+import com.example.gateway.support.PathPatternTrie;
+import com.example.gateway.support.RequestKeys;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * JWT认证过滤器
  * 
@@ -31,18 +37,39 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
     /**
      * JWT工具类，用于验证令牌
      */
-    @Autowired
-    private JwtUtil jwtUtil;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * 已验证令牌缓存，重复出现的令牌无需再次校验签名
+     */
+    private final VerifiedTokenCache tokenCache;
+
+    /**
+     * 本地令牌吊销列表，用于拒绝已被吊销但尚未过期的令牌
+     */
+    private final TokenRevocationList revocationList;
 
     /**
-     * 白名单路径列表
+     * 白名单路径匹配树
      * 这些路径不需要JWT令牌验证，可以直接访问
-     * 通常包括登录接口、注册接口、公开资源等
+     * 由配置项 gateway.security.whitelist 在启动时预编译而成
      */
-    private static final List<String> WHITE_LIST = Arrays.asList(
-            "/auth/login",  // 登录接口
-            "/actuator/**"  // Spring Boot Actuator端点，用于监控和管理
-    );
+    private final PathPatternTrie whitelist;
+
+    /**
+     * 内部声明头编解码器，未配置 internal-claims.secret 时为null，此时只转发用户名
+     */
+    private final InternalClaimsCodec internalClaimsCodec;
+
+    public JwtAuthFilter(JwtUtil jwtUtil, VerifiedTokenCache tokenCache,
+                         TokenRevocationList revocationList, WhitelistProperties whitelistProperties,
+                         @Nullable InternalClaimsCodec internalClaimsCodec) {
+        this.jwtUtil = jwtUtil;
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
+        this.whitelist = new PathPatternTrie(whitelistProperties.getWhitelist());
+        this.internalClaimsCodec = internalClaimsCodec;
+    }
 
     /**
      * 过滤器主方法
@@ -52,8 +79,8 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
      * 流程:
      * 1. 检查请求路径是否在白名单中，如果是则直接放行
      * 2. 从请求头中获取JWT令牌
-     * 3. 验证令牌的有效性
-     * 4. 如果令牌有效，将用户信息传递给下游服务
+     * 3. 验证令牌的有效性（优先查询已验证令牌缓存），并检查令牌是否已被吊销
+     * 4. 如果令牌有效，将用户名和签名的内部声明头传递给下游服务
      * 5. 如果令牌无效或不存在，返回401未授权状态码
      * 
      * @param exchange 包含请求和响应信息的Web交换对象
@@ -63,10 +90,18 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        String path = request.getURI().getPath();
 
         // 检查路径是否在白名单中，如果是则直接放行
-        if (isWhitePath(path)) {
+        if (whitelist.matches(request.getPath().pathWithinApplication())) {
+            if (request.getHeaders().containsKey(RequestKeys.USER_HEADER)
+                    || request.getHeaders().containsKey(InternalClaimsCodec.HEADER)) {
+                // 白名单请求不经过认证，去掉客户端自带的用户信息，防止冒充其他用户
+                request = request.mutate().headers(headers -> {
+                    headers.remove(RequestKeys.USER_HEADER);
+                    headers.remove(InternalClaimsCodec.HEADER);
+                }).build();
+                return chain.filter(exchange.mutate().request(request).build());
+            }
             return chain.filter(exchange);
         }
 
@@ -78,15 +113,29 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
 
         try {
             // 验证JWT令牌
-            String username = jwtUtil.extractUsername(token);
-            if (username == null || jwtUtil.isTokenExpired(token)) {
+            VerifiedToken verified = verify(token);
+            VerifiedClaims claims = verified.getClaims();
+            String username = claims.getSubject();
+            if (username == null || claims.isExpired()) {
                 return unauthorized(exchange);  // 如果令牌无效或已过期，返回401
             }
+            if (revocationList.isRevoked(claims.getId())) {
+                return unauthorized(exchange);  // 如果令牌已被吊销，返回401
+            }
 
             // 将用户信息传递到下游服务
             // 通过添加自定义请求头，下游服务可以获取到用户信息
+            String internalClaims = verified.getInternalClaimsHeader();
             ServerHttpRequest mutableReq = request.mutate()
-                    .header("X-User-Name", username)  // 将用户名添加到请求头
+                    .header(RequestKeys.USER_HEADER, username)  // 将用户名添加到请求头
+                    .headers(headers -> {
+                        // 用户ID和角色放在签名的内部声明头中，下游服务无需解析JWT；客户端自带的一律丢弃
+                        if (internalClaims != null) {
+                            headers.set(InternalClaimsCodec.HEADER, internalClaims);
+                        } else {
+                            headers.remove(InternalClaimsCodec.HEADER);
+                        }
+                    })
                     .build();
             ServerWebExchange mutableExchange = exchange.mutate()
                     .request(mutableReq)
@@ -101,16 +150,29 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
     }
 
     /**
-     * 检查请求路径是否在白名单中
-     * 
-     * 支持通配符匹配，如 /actuator/**
-     * 
-     * @param path 请求路径
-     * @return 如果在白名单中则返回true，否则返回false
+     * 验证令牌并返回其中的声明
+     *
+     * 缓存命中时直接返回；未命中时通过JwtUtil.verify只解析一次令牌，
+     * 验证通过后签好内部声明头，与声明一起写入缓存
+     *
+     * @param token JWT令牌
+     * @return 已验证的声明及内部声明头
      */
-    private boolean isWhitePath(String path) {
-        return WHITE_LIST.stream().anyMatch(pattern -> 
-                path.matches(pattern.replace("**", ".*")));
+    private VerifiedToken verify(String token) {
+        VerifiedToken cached = tokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedClaims claims = jwtUtil.verify(token);  // 签名校验失败或已过期时抛出异常
+        String internalClaims = null;
+        if (internalClaimsCodec != null && claims.getSubject() != null) {
+            internalClaims = internalClaimsCodec.encode(new InternalClaims(
+                    claims.getSubject(), claims.getUserId(), claims.getRoles(), claims.getExpiration()));
+        }
+        VerifiedToken verified = new VerifiedToken(claims, internalClaims);
+        tokenCache.put(token, verified);
+        return verified;
     }
 
     /**
@@ -0,0 +1,148 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.RateLimitProperties;
+import com.example.gateway.ratelimit.TokenBucketRateLimiter;
+import com.example.gateway.support.RequestKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关本地限流过滤器
+ *
+ * Spring Cloud Gateway自带的RequestRateLimiter依赖Redis，每个请求都要多一次网络往返。
+ * 该过滤器在网关内存中为每个用户维护令牌桶，按路由配置速率和突发容量，
+ * 超出限制的请求直接返回429，并通过 Retry-After 告知客户端多久后重试。
+ *
+ * 限流键优先使用JwtAuthFilter写入的 X-User-Name，白名单路径没有用户名时使用客户端IP。
+ * 每个路由的放行、拒绝次数和桶数量通过 gateway.rate-limit.* 指标暴露。
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 按路由ID保存的限流器，启动时根据配置创建，之后只读
+     */
+    private final Map<String, RouteLimiter> limiters = new HashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            RateLimitProperties.Route settings = entry.getValue();
+            if (settings.isEnabled()) {
+                limiters.put(entry.getKey(), new RouteLimiter(entry.getKey(), settings,
+                        properties.getMaxBuckets(), meterRegistry));
+            }
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        RouteLimiter limiter = limiters.get(route.getId());
+        if (limiter == null) {
+            return chain.filter(exchange);
+        }
+
+        long waitNanos = limiter.rateLimiter.tryAcquire(limitKey(exchange.getRequest()));
+        if (waitNanos == 0L) {
+            limiter.allowed.increment();
+            return chain.filter(exchange);
+        }
+        limiter.rejected.increment();
+        return tooManyRequests(exchange, waitNanos);
+    }
+
+    /**
+     * 获取限流键：优先使用用户名，否则使用客户端IP
+     */
+    private static String limitKey(ServerHttpRequest request) {
+        String user = request.getHeaders().getFirst(RequestKeys.USER_HEADER);
+        if (user != null) {
+            return user;
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote != null && remote.getAddress() != null) {
+            return remote.getAddress().getHostAddress();
+        }
+        return "anonymous";
+    }
+
+    /**
+     * 设置限流响应
+     *
+     * 返回429状态码，Retry-After 为需要等待的秒数（向上取整）
+     *
+     * @param exchange Web交换对象
+     * @param waitNanos 需要等待的纳秒数
+     * @return 完成的响应
+     */
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, long waitNanos) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        long retryAfter = Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        return response.setComplete();
+    }
+
+    /**
+     * 获取过滤器执行顺序
+     *
+     * 在JwtAuthFilter(-100)之后执行，才能按用户名限流；
+     * 在响应缓存(-50)之前执行，缓存命中的请求同样计入限额
+     *
+     * @return 过滤器顺序值
+     */
+    @Override
+    public int getOrder() {
+        return -90;
+    }
+
+    /**
+     * 单个路由的限流器及其指标
+     */
+    private static final class RouteLimiter {
+        private final TokenBucketRateLimiter rateLimiter;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private RouteLimiter(String routeId, RateLimitProperties.Route settings,
+                             long maxBuckets, MeterRegistry meterRegistry) {
+            this.rateLimiter = new TokenBucketRateLimiter(settings.getReplenishRate(),
+                    settings.getBurstCapacity(), maxBuckets);
+            this.allowed = counter(meterRegistry, routeId, "allowed");
+            this.rejected = counter(meterRegistry, routeId, "rejected");
+            Gauge.builder("gateway.rate-limit.buckets", rateLimiter, TokenBucketRateLimiter::size)
+                    .description("Token buckets currently held per route")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String routeId, String result) {
+            return Counter.builder("gateway.rate-limit.requests")
+                    .description("Rate limiter decisions per route")
+                    .tag("route", routeId)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.cache.BodyCapturingResponse;
+import com.example.gateway.cache.CachedResponse;
+import com.example.gateway.config.CoalescingProperties;
+import com.example.gateway.support.RequestKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 请求合并（single-flight）过滤器
+ *
+ * 对启用了合并的路由，同一时刻到达的相同GET请求（路由、路径、查询参数和用户都相同）
+ * 只有第一个请求（领头请求）会转发到上游，其余请求（跟随请求）等待领头请求的响应，
+ * 响应体缓冲后分发给所有等待者。
+ *
+ * 跟随请求在以下情况会自行请求上游，保证不会因为合并而失败：
+ * 1. 等待超过配置的最长时间
+ * 2. 响应体超过可共享的大小上限
+ * 3. 领头请求出错或上游返回5xx
+ *
+ * 领头、跟随和回退的次数通过 gateway.coalescing.requests 指标暴露，
+ * 跟随次数占总数的比例即为合并率。
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    private final CoalescingProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 正在进行中的领头请求
+     */
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 按“路由ID/角色”缓存的计数器
+     */
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || RequestKeys.isStreaming(request)) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        CoalescingProperties.Route settings = properties.getRoutes().get(route.getId());
+        if (settings == null || !settings.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        String key = RequestKeys.of(routeId, request);
+        InFlight call = new InFlight();
+        InFlight existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            return lead(exchange, chain, routeId, key, call, settings.getMaxBodySize());
+        }
+        return follow(exchange, chain, routeId, existing, settings);
+    }
+
+    /**
+     * 领头请求：转发到上游，并把缓冲后的响应发布给跟随请求
+     */
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain,
+                            String routeId, String key, InFlight call, int maxBodySize) {
+        count(routeId, "leader");
+        BodyCapturingResponse capturing = new BodyCapturingResponse(exchange.getResponse(), maxBodySize,
+                (upstream, body) -> {
+                    call.publish(isShareable(upstream, body, maxBodySize) ? CachedResponse.of(upstream, body) : null);
+                    return body;
+                },
+                upstream -> call.publish(null));  // 响应体过大，跟随请求立即自行请求上游
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    // 先移除再结束，之后到达的相同请求会成为新的领头请求
+                    inFlight.remove(key, call);
+                    call.publish(null);
+                });
+    }
+
+    /**
+     * 跟随请求：等待领头请求的响应；拿不到可共享的响应时自行请求上游
+     */
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain,
+                              String routeId, InFlight call, CoalescingProperties.Route settings) {
+        return call.result()
+                .timeout(settings.getMaxWait(), Mono.empty())
+                .map(shared -> {
+                    count(routeId, "follower");
+                    boolean notModified = shared.matchesIfNoneMatch(exchange.getRequest().getHeaders());
+                    return shared.writeTo(exchange.getResponse(), notModified);
+                })
+                .defaultIfEmpty(Mono.defer(() -> {
+                    count(routeId, "fallback");
+                    return chain.filter(exchange);
+                }))
+                .flatMap(write -> write);
+    }
+
+    /**
+     * 5xx、304（只对领头请求的客户端有意义）和带Set-Cookie的响应不分发给其他请求
+     */
+    private static boolean isShareable(ServerHttpResponse response, byte[] body, int maxBodySize) {
+        HttpStatus status = response.getStatusCode();
+        return status != null
+                && !status.is5xxServerError()
+                && status != HttpStatus.NOT_MODIFIED
+                && body.length <= maxBodySize
+                && !response.getHeaders().containsKey(HttpHeaders.SET_COOKIE);
+    }
+
+    private void count(String routeId, String role) {
+        counters.computeIfAbsent(routeId + '/' + role, name -> Counter.builder("gateway.coalescing.requests")
+                .description("Coalesced GET requests per route and role")
+                .tag("route", routeId)
+                .tag("role", role)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * 获取过滤器执行顺序
+     *
+     * 在响应缓存过滤器(-50)之后执行，缓存未命中的请求才需要合并
+     *
+     * @return 过滤器顺序值
+     */
+    @Override
+    public int getOrder() {
+        return -40;
+    }
+
+    /**
+     * 一次进行中的上游调用
+     */
+    private static final class InFlight {
+
+        /**
+         * 领头请求的结果：可共享的响应，或者为空表示跟随请求需要自行请求上游
+         */
+        private final Sinks.One<CachedResponse> sink = Sinks.one();
+
+        /**
+         * 发布结果，只有第一次调用生效
+         */
+        synchronized void publish(CachedResponse response) {
+            if (response != null) {
+                sink.tryEmitValue(response);
+            } else {
+                sink.tryEmitEmpty();
+            }
+        }
+
+        Mono<CachedResponse> result() {
+            return sink.asMono();
+        }
+    }
+}
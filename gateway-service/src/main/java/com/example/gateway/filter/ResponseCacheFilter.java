@@ -0,0 +1,230 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.cache.BodyCapturingResponse;
+import com.example.gateway.cache.CachedResponse;
+import com.example.gateway.config.ResponseCacheProperties;
+import com.example.gateway.support.RequestKeys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 网关响应缓存过滤器
+ *
+ * 对按路由启用了缓存的GET请求，把上游的200响应保存在网关内存中，
+ * 相同的请求在存活时间内直接由网关返回，不再转发到后端服务。
+ *
+ * 缓存键由路由ID、请求路径、查询参数和 X-User-Name 组成，不同用户的数据互不可见。
+ * 支持条件请求：客户端携带的 If-None-Match 与缓存的ETag匹配时返回304。
+ * 同一路由上的POST、PUT、PATCH、DELETE请求会淘汰该路径及其上级路径（如 /users/1 和 /users）
+ * 下所有用户、所有查询参数的缓存，客户端写入后不会读到自己写入之前的数据。
+ * 每个路由的命中、未命中和304次数通过 gateway.response.cache.requests 指标暴露。
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 标记响应来源的响应头，便于排查问题
+     */
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCacheProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 缓存的响应，按响应体大小计算权重
+     */
+    private final Cache<String, Entry> cache;
+
+    /**
+     * 按“路由ID/结果”缓存的计数器，避免每个请求都重新查找指标
+     */
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxWeight())
+                .weigher((String key, Entry entry) -> key.length() + entry.response.getBody().length)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        ResponseCacheProperties.Route settings = properties.getRoutes().get(route.getId());
+        if (settings == null || !settings.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        if (isWrite(request.getMethod())) {
+            // 转发前后各淘汰一次：转发期间进行中的GET可能又把旧数据写回缓存
+            String routeId = route.getId();
+            String path = request.getPath().value();
+            evict(routeId, path);
+            return chain.filter(exchange).doFinally(signal -> evict(routeId, path));
+        }
+        if (request.getMethod() != HttpMethod.GET || RequestKeys.isStreaming(request)) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestKeys.of(route.getId(), request);
+        Entry entry = cache.getIfPresent(key);
+        ServerHttpResponse response = exchange.getResponse();
+        if (entry != null) {
+            boolean notModified = entry.response.matchesIfNoneMatch(request.getHeaders());
+            count(route.getId(), notModified ? "not_modified" : "hit");
+            response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+            return entry.response.writeTo(response, notModified);
+        }
+
+        count(route.getId(), "miss");
+        long ttlNanos = settings.getTtl().toNanos();
+        int maxBodySize = settings.getMaxBodySize();
+        BodyCapturingResponse capturing = new BodyCapturingResponse(response, maxBodySize, (upstream, body) -> {
+            if (!isCacheable(upstream, body, maxBodySize)) {
+                upstream.getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                return body;
+            }
+            CachedResponse cached = CachedResponse.of(upstream, body);
+            cache.put(key, new Entry(cached, ttlNanos));
+            upstream.getHeaders().setETag(cached.getEtag());
+            upstream.getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+            if (cached.matchesIfNoneMatch(request.getHeaders())) {
+                // 首次请求时客户端已持有相同版本，同样可以返回304
+                upstream.setStatusCode(HttpStatus.NOT_MODIFIED);
+                return new byte[0];
+            }
+            return body;
+        }, upstream -> upstream.getHeaders().set(CACHE_STATUS_HEADER, "MISS"));
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    /**
+     * 判断是否是会修改数据的请求
+     */
+    private static boolean isWrite(HttpMethod method) {
+        return method == HttpMethod.POST || method == HttpMethod.PUT
+                || method == HttpMethod.PATCH || method == HttpMethod.DELETE;
+    }
+
+    /**
+     * 淘汰路径及其上级路径下的所有缓存（不区分用户和查询参数）
+     *
+     * 写请求远少于读请求，直接遍历缓存键即可，不单独维护路径索引
+     */
+    private void evict(String routeId, String path) {
+        List<String> prefixes = new ArrayList<>();
+        for (String current = path; current.length() > 1; current = current.substring(0, current.lastIndexOf('/'))) {
+            prefixes.add(routeId + '\n' + current);
+        }
+        if (prefixes.isEmpty()) {
+            return;
+        }
+        cache.asMap().keySet().removeIf(key -> {
+            for (String prefix : prefixes) {
+                if (key.startsWith(prefix) && key.length() > prefix.length()) {
+                    char next = key.charAt(prefix.length());
+                    if (next == '?' || next == '\n') {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 只缓存200响应，且尊重上游的no-store/no-cache指令和Set-Cookie
+     */
+    private static boolean isCacheable(ServerHttpResponse response, byte[] body, int maxBodySize) {
+        if (response.getStatusCode() != HttpStatus.OK || body.length > maxBodySize) {
+            return false;
+        }
+        HttpHeaders headers = response.getHeaders();
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null
+                || !(cacheControl.contains("no-store") || cacheControl.contains("no-cache"));
+    }
+
+    private void count(String routeId, String result) {
+        counters.computeIfAbsent(routeId + '/' + result, name -> Counter.builder("gateway.response.cache.requests")
+                .description("Response cache lookups per route")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * 获取过滤器执行顺序
+     *
+     * 必须在JwtAuthFilter(-100)之后执行，才能拿到 X-User-Name；
+     * 同时要在NettyWriteResponseFilter(-1)之前执行，响应装饰器才能生效
+     *
+     * @return 过滤器顺序值
+     */
+    @Override
+    public int getOrder() {
+        return -50;
+    }
+
+    /**
+     * 缓存条目：响应及其存活时间
+     */
+    private static final class Entry {
+        private final CachedResponse response;
+        private final long ttlNanos;
+
+        private Entry(CachedResponse response, long ttlNanos) {
+            this.response = response;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
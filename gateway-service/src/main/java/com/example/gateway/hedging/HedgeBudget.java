@@ -0,0 +1,78 @@
+package com.example.gateway.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求预算
+ *
+ * 限制对冲请求占总流量的比例：每个请求为预算存入 percent/100 个令牌，
+ * 每发出一个对冲请求消耗1个令牌，令牌不足时不对冲。预算有上限，
+ * 长时间没有对冲时也只能积累有限的令牌，避免下游变慢时突然发出大量额外请求。
+ *
+ * 令牌用定点数保存在一个AtomicLong中，存取都是无锁的。
+ */
+public class HedgeBudget {
+
+    /**
+     * 一个令牌对应的定点数值
+     */
+    private static final long ONE = 1_000_000L;
+
+    /**
+     * 每个请求存入的定点令牌数
+     */
+    private final long deposit;
+
+    /**
+     * 最多积累的定点令牌数
+     */
+    private final long capacity;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    /**
+     * 构造函数
+     *
+     * @param percent 对冲请求最多占总请求数的百分比
+     * @param maxTokens 最多积累的令牌数，即允许的对冲突发数
+     */
+    public HedgeBudget(double percent, int maxTokens) {
+        if (percent < 0 || percent > 100 || maxTokens <= 0) {
+            throw new IllegalArgumentException("percent must be in [0, 100] and maxTokens positive");
+        }
+        this.deposit = (long) (percent / 100 * ONE);
+        this.capacity = (long) maxTokens * ONE;
+    }
+
+    /**
+     * 记录一个请求，为预算存入令牌
+     */
+    public void onRequest() {
+        for (;;) {
+            long current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+            if (balance.compareAndSet(current, Math.min(capacity, current + deposit))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 尝试消耗一个令牌用于对冲
+     *
+     * @return 预算充足时返回true
+     */
+    public boolean tryHedge() {
+        for (;;) {
+            long current = balance.get();
+            if (current < ONE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - ONE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶限流器
+ *
+ * 采用GCRA（通用信元速率算法）实现令牌桶：每个键只保存一个“理论到达时间”(TAT)，
+ * 放行一个请求就把TAT向后推一个发放间隔，TAT超出当前时间一个桶容量以上时拒绝。
+ * 效果与“按速率补充、容量有上限”的令牌桶完全等价，但状态只有一个long，
+ * 通过CAS更新，不需要加锁，也不需要后台线程补充令牌。
+ *
+ * 空闲的桶由Caffeine按访问时间过期：一个桶空闲超过“容量×发放间隔”后必然已经装满，
+ * 此时淘汰它与保留它效果相同，因此过期不会让任何用户多得或少得令牌。
+ * 桶的总数另有上限，保证在数百万用户时内存仍然有界。
+ */
+public class TokenBucketRateLimiter {
+
+    /**
+     * 空闲过期时间的下限，避免高速率小容量的配置让桶频繁创建和淘汰
+     */
+    private static final long MIN_IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 每个令牌的发放间隔（纳秒）
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * 允许TAT领先当前时间的最大值（纳秒），即桶容量对应的时长
+     */
+    private final long burstToleranceNanos;
+
+    /**
+     * 键到TAT的映射
+     */
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * 构造函数
+     *
+     * @param replenishRate 每秒补充的令牌数
+     * @param burstCapacity 桶容量
+     * @param maxBuckets 最多保留的桶数量
+     */
+    public TokenBucketRateLimiter(double replenishRate, int burstCapacity, long maxBuckets) {
+        if (replenishRate <= 0 || burstCapacity <= 0) {
+            throw new IllegalArgumentException("replenishRate and burstCapacity must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / replenishRate));
+        this.burstToleranceNanos = emissionIntervalNanos * burstCapacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Math.max(burstToleranceNanos, MIN_IDLE_NANOS), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param key 限流键（用户名或客户端IP）
+     * @return 获取成功返回0；否则返回需要等待的纳秒数
+     */
+    public long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        for (;;) {
+            long current = tat.get();
+            // 新桶或已经装满的桶，从当前时间开始计算
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + emissionIntervalNanos;
+            long ahead = next - now;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * 当前保留的桶数量（近似值）
+     *
+     * @return 桶数量
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
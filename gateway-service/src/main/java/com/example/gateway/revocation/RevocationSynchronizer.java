@@ -0,0 +1,120 @@
+package com.example.gateway.revocation;
+
+import com.example.common.entity.Result;
+import com.example.common.entity.RevocationBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+/**
+ * 吊销列表同步任务
+ *
+ * 定期从认证服务增量拉取吊销记录并合并到 {@link TokenRevocationList}。
+ * 通过游标只拉取新增的数据；如果认证服务返回的游标小于请求的游标，
+ * 说明认证服务的数据被重置（例如重启后内存数据库清空），此时从头重新同步。
+ *
+ * 游标是吊销记录的自增ID。ID在插入时分配，并发的吊销事务可能不按ID顺序提交：
+ * 同步时ID较大的记录已经可见，较小的记录稍后才提交，只按游标拉取会永远跳过它。
+ * 因此每次同步都从游标往回退 overlap 个ID开始读取，重新读到的记录合并到吊销列表是幂等的。
+ */
+@Component
+public class RevocationSynchronizer {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationSynchronizer.class);
+
+    private static final ParameterizedTypeReference<Result<RevocationBatch>> BATCH_TYPE =
+            new ParameterizedTypeReference<Result<RevocationBatch>>() {
+            };
+
+    private final TokenRevocationList revocationList;
+
+    /**
+     * 访问认证服务的客户端，通过负载均衡解析 lb 服务名
+     */
+    private final WebClient webClient;
+
+    /**
+     * 单批拉取的最大记录数
+     */
+    private final int batchSize;
+
+    /**
+     * 每次同步时回退重读的ID数，需大于并发吊销事务可能造成的ID空洞
+     */
+    private final long overlap;
+
+    /**
+     * 已同步到的游标
+     */
+    private long cursor;
+
+    public RevocationSynchronizer(TokenRevocationList revocationList,
+                                  WebClient.Builder webClientBuilder,
+                                  ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                                  @Value("${gateway.revocation.auth-service-uri:http://auth-service}") String authServiceUri,
+                                  @Value("${gateway.revocation.batch-size:1000}") int batchSize,
+                                  @Value("${gateway.revocation.overlap:100}") long overlap) {
+        this.revocationList = revocationList;
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(authServiceUri)
+                .filter(loadBalancerFunction)
+                .build();
+        this.batchSize = batchSize;
+        this.overlap = overlap;
+    }
+
+    /**
+     * 执行一次同步，直到没有更多新增记录
+     *
+     * 运行在调度线程上，不占用Netty事件循环线程
+     */
+    @Scheduled(fixedDelayString = "${gateway.revocation.sync-interval:5000}")
+    public void sync() {
+        try {
+            long from = Math.max(0, cursor - overlap);
+            while (true) {
+                RevocationBatch batch = fetch(from);
+                if (batch == null) {
+                    return;
+                }
+                if (batch.getCursor() < from) {
+                    log.info("Revocation log was reset on auth-service, resynchronizing from the beginning");
+                    cursor = 0;
+                    from = 0;
+                    continue;
+                }
+                revocationList.addAll(batch.getEntries());
+                cursor = Math.max(cursor, batch.getCursor());
+                if (batch.getEntries().size() < batchSize) {
+                    return;
+                }
+                from = batch.getCursor();  // 批次已满，返回的游标一定大于from，循环会向前推进
+            }
+        } catch (Exception e) {
+            // 认证服务暂时不可用时保留现有数据，下个周期重试
+            log.warn("Failed to synchronize token revocations: {}", e.getMessage());
+        }
+    }
+
+    private RevocationBatch fetch(long after) {
+        Result<RevocationBatch> result = webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/auth/revocations")
+                        .queryParam("after", after)
+                        .queryParam("limit", batchSize)
+                        .build())
+                .retrieve()
+                .bodyToMono(BATCH_TYPE)
+                .block(Duration.ofSeconds(5));
+        if (result == null || result.getCode() == null || result.getCode() != 200) {
+            return null;
+        }
+        return result.getData();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gateway.revocation;
+
+import com.example.common.entity.RevocationBatch;
+import com.example.gateway.support.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 网关本地令牌吊销列表
+ *
+ * 由布隆过滤器和精确集合两层组成：绝大多数令牌没有被吊销，布隆过滤器即可判定，
+ * 只有布隆过滤器命中时才查询精确集合。查询是O(1)且不产生对象分配，
+ * 数据由 {@link RevocationSynchronizer} 从认证服务增量同步，请求路径上没有网络调用。
+ *
+ * 布隆过滤器不支持删除，过期记录清理时会重建一个新的过滤器再整体替换。
+ * 写操作（同步、清理）互斥执行，读操作无锁。
+ */
+@Component
+public class TokenRevocationList {
+
+    /**
+     * 被吊销的令牌ID及其原本的过期时间
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    /**
+     * 布隆过滤器的预期容量下限
+     */
+    private final int expectedInsertions;
+
+    /**
+     * 布隆过滤器的期望误判率
+     */
+    private final double falsePositiveRate;
+
+    /**
+     * 当前布隆过滤器的容量
+     */
+    private int bloomCapacity;
+
+    /**
+     * 当前使用的布隆过滤器，重建后整体替换
+     */
+    private volatile BloomFilter bloomFilter;
+
+    public TokenRevocationList(MeterRegistry meterRegistry,
+                               @Value("${gateway.revocation.expected-insertions:100000}") int expectedInsertions,
+                               @Value("${gateway.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomCapacity = expectedInsertions;
+        this.bloomFilter = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        Gauge.builder("gateway.revocation.size", revoked, Map::size)
+                .description("Number of revoked token ids held by the gateway")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 判断令牌是否已被吊销
+     *
+     * @param jti 令牌ID，为null时视为未吊销
+     * @return 已吊销返回true，否则返回false
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * 合并一批增量吊销记录
+     *
+     * @param entries 吊销记录
+     */
+    public synchronized void addAll(List<RevocationBatch.Entry> entries) {
+        long now = System.currentTimeMillis();
+        for (RevocationBatch.Entry entry : entries) {
+            if (entry.getExpiresAt() > now) {
+                revoked.put(entry.getJti(), entry.getExpiresAt());
+                bloomFilter.put(entry.getJti());
+            }
+        }
+        if (revoked.size() > bloomCapacity) {
+            rebuild();  // 超出容量后误判率会上升，按新规模重建
+        }
+    }
+
+    /**
+     * 定期清理已过期的令牌，并重建布隆过滤器
+     */
+    @Scheduled(fixedDelayString = "${gateway.revocation.purge-interval:600000}")
+    public synchronized void purgeExpired() {
+        long now = System.currentTimeMillis();
+        boolean removed = false;
+        for (Iterator<Long> it = revoked.values().iterator(); it.hasNext(); ) {
+            if (it.next() <= now) {
+                it.remove();
+                removed = true;
+            }
+        }
+        if (removed) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        int capacity = Math.max(expectedInsertions, revoked.size() * 2);
+        BloomFilter rebuilt = BloomFilter.create(capacity, falsePositiveRate);
+        for (String jti : revoked.keySet()) {
+            rebuilt.put(jti);
+        }
+        bloomCapacity = capacity;
+        bloomFilter = rebuilt;
+    }
+}
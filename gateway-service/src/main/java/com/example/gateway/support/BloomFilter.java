@@ -0,0 +1,114 @@
+package com.example.gateway.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ *
+ * 用于在请求路径上快速排除“肯定不在集合中”的元素。查询只做若干次位运算，
+ * 直接按字符计算哈希，不会把字符串编码成字节数组，因此不产生对象分配。
+ * 返回true时元素可能存在（有一定误判率），需要再查询精确集合确认。
+ *
+ * 哈希方案采用双重哈希：由一个64位哈希拆出h1、h2，第i个位置为 h1 + i * h2。
+ */
+public final class BloomFilter {
+
+    /**
+     * 位数组，每个long保存64位
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * 位数组总位数
+     */
+    private final long bitSize;
+
+    /**
+     * 每个元素使用的哈希函数个数
+     */
+    private final int hashCount;
+
+    private BloomFilter(long bitSize, int hashCount) {
+        this.bits = new AtomicLongArray((int) ((bitSize + 63) >>> 6));
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * 按预期元素数量和误判率创建布隆过滤器
+     *
+     * @param expectedInsertions 预期元素数量
+     * @param falsePositiveRate 期望误判率，取值(0, 1)
+     * @return 布隆过滤器
+     */
+    public static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long bitSize = Math.max(64L, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int hashCount = Math.max(1, (int) Math.round((double) bitSize / n * ln2));
+        return new BloomFilter(bitSize, hashCount);
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     */
+    public void put(CharSequence value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素
+     * @return false表示一定不存在；true表示可能存在
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash & 0x7FFFFFFFL) % bitSize;
+    }
+
+    /**
+     * 64位FNV-1a哈希，最后做一次MurmurHash3的fmix64混合以改善低位分布
+     */
+    private static long hash64(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gateway.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 轻量级延迟直方图
+ *
+ * 按对数刻度分桶：每个2倍区间分为4个桶，相对误差约19%，覆盖1微秒到约60秒。
+ * 记录只是一次数组下标计算和一次原子自增，可以在请求路径上使用；
+ * 调用 {@link #rollover(double, long)} 会读出上一个窗口的分位数并开始新窗口。
+ *
+ * 这里只需要一个粗略的分位数来决定对冲请求的等待时间，不需要Micrometer计时器那样的精度。
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 每个2倍区间的桶数
+     */
+    private static final int SUB_BUCKETS = 4;
+
+    /**
+     * 桶数量：26个2倍区间，最大约67秒
+     */
+    private static final int BUCKETS = 26 * SUB_BUCKETS;
+
+    /**
+     * 当前窗口的计数，轮换时整体替换
+     */
+    private volatile AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * 结束当前窗口，返回其中的分位数
+     *
+     * @param quantile 分位数，取值(0, 1)
+     * @param minSamples 最少样本数，样本不足时返回-1
+     * @return 分位数对应的耗时（纳秒，取所在桶的上界），样本不足时返回-1
+     */
+    public long rollover(double quantile, long minSamples) {
+        AtomicLongArray window = counts;
+        counts = new AtomicLongArray(BUCKETS);
+
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += window.get(i);
+        }
+        if (total < minSamples || total == 0) {
+            return -1L;
+        }
+        long target = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += window.get(i);
+            if (seen >= target) {
+                return TimeUnit.MICROSECONDS.toNanos(upperBound(i));
+            }
+        }
+        return TimeUnit.MICROSECONDS.toNanos(upperBound(BUCKETS - 1));
+    }
+
+    private static int bucket(long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        // 取最高位之后的两位作为区间内的子桶
+        int sub = octave >= 2 ? (int) ((micros >>> (octave - 2)) & (SUB_BUCKETS - 1)) : (int) ((micros << (2 - octave)) & (SUB_BUCKETS - 1));
+        return Math.min(BUCKETS - 1, octave * SUB_BUCKETS + sub);
+    }
+
+    private static long upperBound(int bucket) {
+        int octave = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << octave) / SUB_BUCKETS;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.gateway.support;
+
+import org.springframework.http.server.PathContainer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的路径匹配树
+ *
+ * 把一组Ant风格的路径模式按路径段组织成一棵前缀树，启动时构建一次，之后只读。
+ * 匹配时逐段查找子节点，耗时只与请求路径的段数有关，与模式数量无关；
+ * 直接遍历请求已经解析好的 {@link PathContainer}，匹配过程不产生任何对象分配。
+ *
+ * 支持的模式语法:
+ * 1. 普通路径段，如 /auth/login
+ * 2. 单段通配符 *，匹配任意一个路径段，如 /users/{@literal *}/profile
+ * 3. 结尾的多段通配符 **，匹配零个或多个剩余路径段，如 /actuator/**
+ *
+ * 段内部分通配（如 *.js）和位于中间的 ** 不受支持，构建时会抛出IllegalArgumentException。
+ */
+public final class PathPatternTrie {
+
+    /**
+     * 单段通配符
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * 多段通配符
+     */
+    private static final String DEEP_WILDCARD = "**";
+
+    /**
+     * 根节点
+     */
+    private final Node root = new Node();
+
+    /**
+     * 根据模式列表构建匹配树
+     *
+     * @param patterns 路径模式列表
+     */
+    public PathPatternTrie(Collection<String> patterns) {
+        for (String pattern : patterns) {
+            add(pattern);
+        }
+    }
+
+    private void add(String pattern) {
+        String[] segments = pattern.split("/");
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;  // 忽略开头的斜杠和连续斜杠
+            }
+            if (DEEP_WILDCARD.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' is only supported at the end of a pattern: " + pattern);
+                }
+                node.matchesRest = true;
+                return;
+            }
+            if (WILDCARD.equals(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else {
+                if (segment.indexOf('*') >= 0) {
+                    throw new IllegalArgumentException("Partial wildcards are not supported: " + pattern);
+                }
+                node = node.literals.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.terminal = true;
+    }
+
+    /**
+     * 判断路径是否匹配任意一个模式
+     *
+     * @param path 已解析的请求路径，通常为 request.getPath().pathWithinApplication()
+     * @return 匹配返回true，否则返回false
+     */
+    public boolean matches(PathContainer path) {
+        return match(root, path.elements(), 0);
+    }
+
+    private static boolean match(Node node, List<PathContainer.Element> elements, int index) {
+        int size = elements.size();
+        while (index < size && !(elements.get(index) instanceof PathContainer.PathSegment)) {
+            index++;  // 跳过分隔符
+        }
+        if (node.matchesRest) {
+            return true;
+        }
+        if (index == size) {
+            return node.terminal;
+        }
+
+        String segment = ((PathContainer.PathSegment) elements.get(index)).valueToMatch();
+        Node literal = node.literals.get(segment);
+        if (literal != null && match(literal, elements, index + 1)) {
+            return true;
+        }
+        return node.wildcard != null && match(node.wildcard, elements, index + 1);
+    }
+
+    /**
+     * 匹配树节点
+     */
+    private static final class Node {
+        /**
+         * 普通路径段对应的子节点
+         */
+        private final Map<String, Node> literals = new HashMap<>();
+
+        /**
+         * 单段通配符对应的子节点
+         */
+        private Node wildcard;
+
+        /**
+         * 是否有模式在此节点结束
+         */
+        private boolean terminal;
+
+        /**
+         * 是否有以 ** 结尾的模式在此节点结束
+         */
+        private boolean matchesRest;
+    }
+}
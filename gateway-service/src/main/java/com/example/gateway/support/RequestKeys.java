@@ -0,0 +1,71 @@
+package com.example.gateway.support;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.List;
+
+/**
+ * 请求标识工具类
+ *
+ * 为响应缓存、请求合并等需要识别“相同请求”的过滤器生成统一的请求键。
+ */
+public final class RequestKeys {
+
+    /**
+     * 网关在认证通过后写入的用户名请求头
+     */
+    public static final String USER_HEADER = "X-User-Name";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private RequestKeys() {
+    }
+
+    /**
+     * 构造请求键：路由ID、路径、查询参数和用户名
+     *
+     * 用户名来自JwtAuthFilter写入的 X-User-Name，不同用户的请求不会被视为相同请求
+     *
+     * @param routeId 路由ID
+     * @param request 请求
+     * @return 请求键
+     */
+    public static String of(String routeId, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String user = request.getHeaders().getFirst(USER_HEADER);
+        StringBuilder key = new StringBuilder(64)
+                .append(routeId).append('\n')
+                .append(request.getPath().value());
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        return key.append('\n').append(user != null ? user : "").toString();
+    }
+
+    /**
+     * 判断是否是流式请求（Accept为NDJSON或SSE）
+     *
+     * 流式响应需要边收边转发，缓存和合并都要把整个响应体缓冲下来，因此跳过这类请求；
+     * 请求键中也不包含Accept，跳过可以避免流式请求命中普通JSON响应的缓存。
+     * Accept格式错误时按非流式处理，交给下游返回406，而不是在网关里抛出500
+     *
+     * @param request 请求
+     * @return 流式请求时返回true
+     */
+    public static boolean isStreaming(ServerHttpRequest request) {
+        List<MediaType> accepts;
+        try {
+            accepts = request.getHeaders().getAccept();
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        for (MediaType accept : accepts) {
+            if (NDJSON.equalsTypeAndSubtype(accept) || MediaType.TEXT_EVENT_STREAM.equalsTypeAndSubtype(accept)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
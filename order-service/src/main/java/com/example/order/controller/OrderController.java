@@ -1,6 +1,7 @@
 package com.example.order.controller;
 
 import com.example.common.entity.Result;
+import com.example.common.security.InternalClaims;
 import com.example.order.entity.Order;
 import com.example.order.entity.User;
 import com.example.order.feign.UserClient;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -118,6 +120,28 @@ public class OrderController {
         return Result.success(userOrders);
     }
 
+    /**
+     * 获取当前用户的所有订单
+     * 
+     * 用户ID来自网关转发的内部声明头，无需解析JWT，也无需调用用户服务查询用户ID
+     * 
+     * HTTP GET /orders/mine
+     * 
+     * @param principal 当前用户，由InternalClaimsFilter设置
+     * @return 当前用户的订单列表
+     */
+    @GetMapping("/mine")
+    public Result<List<Order>> getMyOrders(Principal principal) {
+        if (!(principal instanceof InternalClaims) || ((InternalClaims) principal).getUserId() == null) {
+            return Result.fail(401, "未认证");
+        }
+        Long userId = ((InternalClaims) principal).getUserId();
+        List<Order> userOrders = orderList.stream()
+                .filter(order -> order.getUserId().equals(userId))
+                .collect(Collectors.toList());
+        return Result.success(userOrders);
+    }
+
     /**
      * 创建新订单
      * 
@@ -0,0 +1,39 @@
+package com.example.user.config;
+
+import com.example.common.security.AdaptiveBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * 密码编码器配置类
+ * 
+ * 与认证服务一致，BCrypt代价在启动时按目标延迟校准，
+ * 而不是在UserServiceImpl中写死默认代价
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    /**
+     * 配置密码编码器
+     *
+     * @param targetLatency 单次哈希的目标延迟
+     * @param minCost 校准允许的最小代价
+     * @param maxCost 校准允许的最大代价
+     * @param cost 固定代价，大于0时跳过校准
+     * @return BCrypt密码编码器实例
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Value("${user.password-hashing.target-latency:100ms}") Duration targetLatency,
+            @Value("${user.password-hashing.min-cost:10}") int minCost,
+            @Value("${user.password-hashing.max-cost:16}") int maxCost,
+            @Value("${user.password-hashing.cost:0}") int cost) {
+        return cost > 0
+                ? new AdaptiveBCryptPasswordEncoder(cost)
+                : AdaptiveBCryptPasswordEncoder.calibrated(targetLatency, minCost, maxCost);
+    }
+}
@@ -2,26 +2,53 @@ package com.example.user.controller;
 
 import com.example.common.entity.Result;
 import com.example.user.entity.User;
+import com.example.user.entity.UserPage;
 import com.example.user.service.UserService;
+import com.example.user.store.DuplicateUserException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 用户服务控制器
  * 
- * 提供用户相关的REST API，包括查询所有用户、根据ID查询用户、以及搜索用户。
- * 为了简化示例，此控制器使用内存列表模拟数据库存储。
+ * 提供用户相关的REST API，包括分页查询用户、根据ID查询用户、以及搜索用户。
+ * 列表和搜索接口使用游标分页；请求头 Accept: application/x-ndjson 时改为流式输出全部结果。
+ * 为了简化示例，用户数据保存在内存中的UserStore里。
  * 在实际应用中，应该使用数据库如MySQL、MongoDB等进行数据持久化。
  */
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
+    /**
+     * NDJSON媒体类型，每行一个JSON对象
+     */
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    /**
+     * 列表接口每页最多返回的用户数
+     */
+    private static final int MAX_PAGE_LIMIT = 500;
+
+    /**
+     * 搜索接口单次最多返回的用户数
+     */
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    /**
+     * 流式输出时每写多少个用户刷新一次输出流
+     */
+    private static final int FLUSH_INTERVAL = 256;
+
     /**
      * 用户服务，处理用户相关业务逻辑
      */
@@ -29,31 +56,40 @@ public class UserController {
     private UserService userService;
 
     /**
-     * 模拟用户数据库
-     * 使用静态列表存储用户数据，仅用于演示
+     * 流式输出时逐个序列化用户
      */
-    private static final List<User> userList = new ArrayList<>();
+    @Autowired
+    private ObjectMapper objectMapper;
 
     /**
-     * 静态初始化块
-     * 在类加载时初始化测试数据
+     * 分页获取用户
+     * 
+     * HTTP GET /users?limit=50&after=123
+     * 
+     * 按ID顺序的游标分页，响应中的nextCursor作为下一页的after参数
+     * 
+     * @param limit 每页用户数，默认50，最大500
+     * @param after 上一页的游标，第一页不传
+     * @return 当前页的用户和下一页的游标
      */
-    static {
-        userList.add(new User(1L, "user1", "user1@example.com"));
-        userList.add(new User(2L, "user2", "user2@example.com"));
-        userList.add(new User(3L, "user3", "user3@example.com"));
+    @GetMapping
+    public Result<UserPage> getAllUsers(@RequestParam(defaultValue = "50") int limit,
+                                        @RequestParam(required = false) Long after) {
+        return Result.success(userService.findPage(after, clamp(limit, MAX_PAGE_LIMIT)));
     }
 
     /**
-     * 获取所有用户
+     * 流式获取所有用户
+     * 
+     * HTTP GET /users，请求头 Accept: application/x-ndjson
      * 
-     * HTTP GET /users
+     * 每行一个用户的JSON，按ID顺序边查边写，不在内存中组装完整列表
      * 
-     * @return 包含所有用户的响应结果
+     * @return 流式响应
      */
-    @GetMapping
-    public Result<List<User>> getAllUsers() {
-        return Result.success(userService.findAll());
+    @GetMapping(produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return stream(null);
     }
 
     /**
@@ -82,22 +118,41 @@ public class UserController {
     @GetMapping("/username/{username}")
     public Result<User> getUserByUsername(@PathVariable String username) {
         User user = userService.findByUsername(username);
-        return user != null ? Result.success(user) : Result.fail("用户不存在");
+        return user != null ? Result.success(user) : Result.fail(404, "用户不存在");
     }
 
     /**
      * 搜索用户
-     * 根据关键字搜索用户名或电子邮件中包含该关键字的用户
+     * 根据关键字搜索用户名或电子邮件中包含该关键字的用户（忽略大小写），
+     * 用户名完全匹配或以关键字开头的排在前面
      * 
-     * HTTP GET /users/search?keyword=xxx
+     * HTTP GET /users/search?keyword=xxx&limit=20&after=xxx
      * 
      * @param keyword 搜索关键字
-     * @return 匹配的用户列表
+     * @param limit 每页用户数，默认20，最大100
+     * @param after 上一页返回的游标，第一页不传
+     * @return 当前页的用户和下一页的游标
      */
     @GetMapping("/search")
-    public Result<List<User>> searchUsers(@RequestParam String keyword) {
-        List<User> filteredUsers = userService.search(keyword);
-        return Result.success(filteredUsers);
+    public Result<UserPage> searchUsers(@RequestParam String keyword,
+                                        @RequestParam(defaultValue = "20") int limit,
+                                        @RequestParam(required = false) String after) {
+        return Result.success(userService.search(keyword, clamp(limit, MAX_SEARCH_LIMIT), after));
+    }
+
+    /**
+     * 流式搜索用户
+     * 
+     * HTTP GET /users/search?keyword=xxx，请求头 Accept: application/x-ndjson
+     * 
+     * 每行一个匹配用户的JSON，按ID顺序输出全部匹配结果，不排序也不分页
+     * 
+     * @param keyword 搜索关键字
+     * @return 流式响应
+     */
+    @GetMapping(value = "/search", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchUsers(@RequestParam String keyword) {
+        return stream(keyword);
     }
 
     /**
@@ -144,4 +199,59 @@ public class UserController {
         boolean deleted = userService.deleteById(id);
         return deleted ? Result.success() : Result.fail("删除失败，用户不存在");
     }
-} 
\ No newline at end of file
+
+    /**
+     * 处理用户名或邮箱冲突
+     *
+     * @param e 冲突异常
+     * @return 409错误响应
+     */
+    @ExceptionHandler(DuplicateUserException.class)
+    public Result<Void> handleDuplicateUser(DuplicateUserException e) {
+        return Result.fail(409, e.getMessage());
+    }
+
+    /**
+     * 处理缺少必填字段等非法参数
+     *
+     * @param e 参数异常
+     * @return 400错误响应
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public Result<Void> handleIllegalArgument(IllegalArgumentException e) {
+        return Result.fail(400, e.getMessage());
+    }
+
+    /**
+     * 逐个写出匹配的用户，内存占用与用户总数无关
+     */
+    private ResponseEntity<StreamingResponseBody> stream(String keyword) {
+        ObjectWriter writer = objectMapper.writerFor(User.class);
+        StreamingResponseBody body = out -> {
+            int[] written = new int[1];
+            try {
+                userService.forEachMatch(keyword, user -> {
+                    try {
+                        out.write(writer.writeValueAsBytes(user));
+                        out.write('\n');
+                        if (++written[0] % FLUSH_INTERVAL == 0) {
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();  // 通常是客户端断开连接
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    private static int clamp(int limit, int max) {
+        return Math.max(1, Math.min(limit, max));
+    }
+}
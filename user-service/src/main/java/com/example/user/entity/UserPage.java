@@ -0,0 +1,46 @@
+package com.example.user.entity;
+
+import java.util.List;
+
+/**
+ * 用户分页结果
+ * 
+ * 采用游标分页：客户端把nextCursor作为下一次请求的after参数，
+ * 无论翻到第几页，服务端都只查找当前页需要的数据
+ */
+public class UserPage {
+
+    /**
+     * 当前页的用户
+     */
+    private List<User> items;
+
+    /**
+     * 下一页的游标，没有更多数据时为null
+     */
+    private String nextCursor;
+
+    public UserPage() {
+    }
+
+    public UserPage(List<User> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<User> getItems() {
+        return items;
+    }
+
+    public void setItems(List<User> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,24 +1,20 @@
 package com.example.user.service;
 
 import com.example.user.entity.User;
+import com.example.user.entity.UserPage;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 用户服务接口
  * 
- * 定义用户相关的业务方法
+ * 定义用户相关的业务方法。
+ * 列表和搜索只提供分页（findPage、search）和逐个处理（forEachMatch）两种形式，
+ * 不提供一次返回全部用户的方法，用户数很多时也不会把结果整个放进内存
  */
 public interface UserService {
 
-    /**
-     * 获取所有用户
-     * 
-     * @return 用户列表
-     */
-    List<User> findAll();
-    
     /**
      * 根据ID查找用户
      * 
@@ -36,12 +32,31 @@ public interface UserService {
     User findByUsername(String username);
     
     /**
-     * 搜索用户
+     * 按ID顺序分页获取用户
+     * 
+     * @param after 上一页的游标（最后一个用户的ID），第一页为null
+     * @param limit 每页用户数
+     * @return 当前页的用户和下一页的游标
+     */
+    UserPage findPage(Long after, int limit);
+    
+    /**
+     * 搜索用户，按匹配程度排序并分页
+     * 
+     * @param keyword 搜索关键字，匹配用户名或邮箱的子串，忽略大小写
+     * @param limit 每页用户数
+     * @param after 上一页返回的游标，第一页为null
+     * @return 当前页的用户（最相关的在前）和下一页的游标
+     */
+    UserPage search(String keyword, int limit, String after);
+    
+    /**
+     * 按ID顺序逐个处理匹配关键字的用户，用于流式输出
      * 
-     * @param keyword 搜索关键字
-     * @return 匹配的用户列表
+     * @param keyword 搜索关键字，为空时处理全部用户
+     * @param action 处理每个用户
      */
-    List<User> search(String keyword);
+    void forEachMatch(String keyword, Consumer<User> action);
     
     /**
      * 保存或更新用户
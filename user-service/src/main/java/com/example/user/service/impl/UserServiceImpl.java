@@ -1,122 +1,99 @@
 package com.example.user.service.impl;
 
 import com.example.user.entity.User;
+import com.example.user.entity.UserPage;
 import com.example.user.service.UserService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import com.example.user.store.UserStore;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * 用户服务实现类
  * 
  * 实现UserService接口的业务逻辑
- * 为了简化示例，使用内存列表存储用户数据
+ * 为了简化示例，用户数据保存在内存中的UserStore里
  * 实际应用中应该使用数据库
  */
 @Service
 public class UserServiceImpl implements UserService {
 
-    // 用于密码加密和验证
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    // 用于密码加密和验证，BCrypt代价由PasswordEncoderConfig按机器校准
+    private final PasswordEncoder passwordEncoder;
     
-    // 模拟用户数据库
-    private static final List<User> userList = new ArrayList<>();
+    // 模拟用户数据库，按ID、用户名、邮箱建立索引，支持并发读写
+    private final UserStore userStore;
     
-    // 静态初始化，添加测试用户
-    static {
-        // 添加几个测试用户，密码为用户名
-        User user1 = new User(1L, "user1", "user1@example.com");
-        User user2 = new User(2L, "user2", "user2@example.com");
-        User user3 = new User(3L, "user3", "user3@example.com");
+    public UserServiceImpl(PasswordEncoder passwordEncoder, UserStore userStore) {
+        this.passwordEncoder = passwordEncoder;
+        this.userStore = userStore;
         
-        userList.add(user1);
-        userList.add(user2);
-        userList.add(user3);
+        // 添加几个测试用户
+        if (userStore.size() == 0) {
+            userStore.insert(new User(null, "user1", "user1@example.com"));
+            userStore.insert(new User(null, "user2", "user2@example.com"));
+            userStore.insert(new User(null, "user3", "user3@example.com"));
+        }
     }
     
     @Override
-    public List<User> findAll() {
-        return new ArrayList<>(userList);
+    public Optional<User> findById(Long id) {
+        return userStore.findById(id);
     }
     
     @Override
-    public Optional<User> findById(Long id) {
-        return userList.stream()
-                .filter(user -> user.getId().equals(id))
-                .findFirst();
+    public User findByUsername(String username) {
+        return userStore.findByUsername(username);
     }
     
     @Override
-    public User findByUsername(String username) {
-        return userList.stream()
-                .filter(user -> user.getUsername().equals(username))
-                .findFirst()
-                .orElse(null);
+    public UserPage findPage(Long after, int limit) {
+        return userStore.page(after, limit);
     }
     
     @Override
-    public List<User> search(String keyword) {
-        if (keyword == null || keyword.isEmpty()) {
-            return new ArrayList<>(userList);
-        }
-        
-        return userList.stream()
-                .filter(user -> 
-                    user.getUsername().contains(keyword) || 
-                    (user.getEmail() != null && user.getEmail().contains(keyword)))
-                .collect(Collectors.toList());
+    public UserPage search(String keyword, int limit, String after) {
+        // 前缀匹配走用户名跳表，子串匹配走三元组索引，不再扫描全部用户
+        return userStore.search(keyword, limit, after);
+    }
+    
+    @Override
+    public void forEachMatch(String keyword, Consumer<User> action) {
+        userStore.forEachMatch(keyword, action);
     }
     
     @Override
     public User save(User user) {
-        // 如果是新用户
+        // 如果提供了密码并且不是已加密的密码，先加密；哈希耗时较长，不在存储的更新过程中进行
+        if (user.getPassword() != null && !user.getPassword().isEmpty() 
+                && !user.getPassword().startsWith("$2a$")) {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        }
+        
+        // 如果是新用户，由存储分配ID
         if (user.getId() == null) {
-            // 生成新ID
-            long newId = userList.isEmpty() ? 1 : userList.stream()
-                    .mapToLong(User::getId)
-                    .max()
-                    .getAsLong() + 1;
-            user.setId(newId);
-            
-            // 如果提供了密码，进行加密
-            if (user.getPassword() != null && !user.getPassword().isEmpty()) {
-                user.setPassword(passwordEncoder.encode(user.getPassword()));
-            }
-            
-            userList.add(user);
-        } else {
-            // 更新现有用户
-            for (int i = 0; i < userList.size(); i++) {
-                if (userList.get(i).getId().equals(user.getId())) {
-                    // 如果提供了新密码并且不是已加密的密码
-                    if (user.getPassword() != null && !user.getPassword().isEmpty() 
-                            && !user.getPassword().startsWith("$2a$")) {
-                        user.setPassword(passwordEncoder.encode(user.getPassword()));
-                    } else if (user.getPassword() == null || user.getPassword().isEmpty()) {
-                        // 保留原密码
-                        user.setPassword(userList.get(i).getPassword());
-                    }
-                    
-                    userList.set(i, user);
-                    break;
-                }
-            }
+            User saved = userStore.insert(user);
+            user.setId(saved.getId());
+            return user;
         }
         
-        return user;
+        // 更新现有用户，不存在时原样返回
+        User updated = userStore.update(user.getId(), current -> {
+            if (user.getPassword() == null || user.getPassword().isEmpty()) {
+                // 保留原密码
+                user.setPassword(current.getPassword());
+            }
+            return user;
+        });
+        return updated != null ? updated : user;
     }
     
     @Override
     public boolean deleteById(Long id) {
-        int initialSize = userList.size();
-        userList.removeIf(user -> user.getId().equals(id));
-        return userList.size() < initialSize;
+        return userStore.delete(id);
     }
-    
     @Override
     public boolean validateCredentials(String username, String password) {
         User user = findByUsername(username);
@@ -130,6 +107,15 @@ public class UserServiceImpl implements UserService {
             save(user);
         }
         
-        return passwordEncoder.matches(password, user.getPassword());
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            return false;
+        }
+        
+        // 存储的哈希代价低于当前目标代价时，用明文密码重新哈希
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(password));
+            save(user);
+        }
+        return true;
     }
 } 
\ No newline at end of file
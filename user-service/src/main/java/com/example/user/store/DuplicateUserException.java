@@ -0,0 +1,11 @@
+package com.example.user.store;
+
+/**
+ * 用户名或邮箱已被其他用户占用
+ */
+public class DuplicateUserException extends RuntimeException {
+
+    public DuplicateUserException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.user.store;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户名和邮箱的三元组倒排索引
+ *
+ * 把忽略大小写折叠后的用户名和邮箱切成所有长度为3的子串（三元组），每个三元组对应一个按ID升序排列的int数组，
+ * 记录包含它的用户。长度不少于3的关键字是某个用户名或邮箱的子串时，关键字的每个三元组都必然出现在
+ * 该用户的倒排表中，因此对关键字的各个三元组的倒排表求交集即可得到候选用户，再由调用方逐个核对。
+ *
+ * 设计要点:
+ * 1. 倒排表是int数组而不是List&lt;Long&gt;，百万用户时每条记录只占4字节；
+ *    新用户的ID递增，新增通常是在数组末尾追加
+ * 2. 求交集时沿最短的倒排表前进，在较长的表中用倍增+二分查找跳跃定位，
+ *    凑够本批候选数即停止，调用方以上一批最后的ID继续取下一批。UserStore的排序搜索只取一批，
+ *    常见三元组（如邮箱域名）的长倒排表不会被完整遍历；流式输出才会按批走完整个交集
+ * 3. 由UserStore在写入时增量维护，用读写锁保护：查询之间互不阻塞，写入只修改变化的三元组
+ */
+final class TrigramIndex {
+
+    /**
+     * 三元组的长度
+     */
+    static final int GRAM = 3;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 用户的用户名或邮箱发生变化时更新索引
+     *
+     * @param id 用户ID
+     * @param oldUsername 原用户名，新增时为null
+     * @param oldEmail 原邮箱，可以为null
+     * @param newUsername 新用户名，删除时为null
+     * @param newEmail 新邮箱，可以为null
+     */
+    void update(long id, String oldUsername, String oldEmail, String newUsername, String newEmail) {
+        int posting = toPosting(id);
+        Set<Long> before = grams(oldUsername, oldEmail);
+        Set<Long> after = grams(newUsername, newEmail);
+        if (before.equals(after)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long gram : before) {
+                if (!after.contains(gram)) {
+                    PostingList list = postings.get(gram);
+                    if (list != null && list.remove(posting) && list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            for (Long gram : after) {
+                if (!before.contains(gram)) {
+                    postings.computeIfAbsent(gram, key -> new PostingList()).add(posting);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查找用户名或邮箱中可能包含关键字的用户
+     *
+     * 沿最短的倒排表按ID升序逐个检查其余倒排表，凑够max个候选即停止，
+     * 关键字很宽泛时不必遍历完整的倒排表；以上一批最后的ID作为after可以继续取下一批
+     *
+     * @param keyword 关键字，长度不少于 {@link #GRAM}
+     * @param max 最多返回的候选数
+     * @param after 只返回大于该ID的候选，从头开始时为0
+     * @return 按ID升序的候选用户ID，需要调用方核对
+     */
+    int[] candidates(String keyword, int max, int after) {
+        Set<Long> grams = grams(keyword, null);
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[grams.size()];
+            int n = 0;
+            for (Long gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    return new int[0];  // 某个三元组没有任何用户包含，不可能匹配
+                }
+                lists[n++] = list;
+            }
+            Arrays.sort(lists, 0, n, (a, b) -> Integer.compare(a.size, b.size));
+
+            PostingList shortest = lists[0];
+            int start = seek(shortest.ids, shortest.size, 0, after + 1);
+            int[] result = new int[Math.min(shortest.size - start, max)];
+            int size = 0;
+            int[] cursors = new int[n];
+            outer:
+            for (int i = start; i < shortest.size && size < result.length; i++) {
+                int target = shortest.ids[i];
+                for (int j = 1; j < n; j++) {
+                    int index = seek(lists[j].ids, lists[j].size, cursors[j], target);
+                    if (index >= lists[j].size) {
+                        break outer;  // 较长的倒排表已经走完，后面不会再有交集
+                    }
+                    cursors[j] = index;
+                    if (lists[j].ids[index] != target) {
+                        continue outer;
+                    }
+                }
+                result[size++] = target;
+            }
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 从from开始查找第一个不小于target的位置，先倍增确定区间再二分
+     *
+     * @return 位置，所有元素都小于target时返回size
+     */
+    private static int seek(int[] ids, int size, int from, int target) {
+        int bound = 1;
+        while (from + bound < size && ids[from + bound] < target) {
+            bound <<= 1;
+        }
+        int index = Arrays.binarySearch(ids, from + (bound >> 1), Math.min(from + bound + 1, size), target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * 提取折叠大小写后的三元组，用户名和邮箱中重复的三元组只保留一个
+     */
+    static Set<Long> grams(String username, String email) {
+        Set<Long> grams = new LinkedHashSet<>();
+        addGrams(grams, username);
+        addGrams(grams, email);
+        return grams;
+    }
+
+    private static void addGrams(Set<Long> grams, String value) {
+        if (value == null || value.length() < GRAM) {
+            return;
+        }
+        char a = fold(value.charAt(0));
+        char b = fold(value.charAt(1));
+        for (int i = GRAM - 1; i < value.length(); i++) {
+            char c = fold(value.charAt(i));
+            grams.add((long) a << 32 | (long) b << 16 | c);
+            a = b;
+            b = c;
+        }
+    }
+
+    /**
+     * 逐字符折叠大小写，与String.regionMatches(true, ...)的比较规则一致
+     *
+     * 不使用String.toLowerCase：它可能改变字符串长度（如'İ'变成"i̇"），
+     * 索引中的三元组就会与UserStore逐字符核对的结果不一致
+     *
+     * @param c 字符
+     * @return 折叠后的字符
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * 逐字符折叠整个字符串的大小写，长度不变
+     *
+     * @param value 字符串
+     * @return 折叠后的字符串
+     */
+    static String fold(String value) {
+        char[] chars = new char[value.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(value.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static int toPosting(long id) {
+        if (id <= 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("User id out of index range: " + id);
+        }
+        return (int) id;
+    }
+
+    /**
+     * 按升序排列的用户ID数组，容量不足时按1.5倍扩容
+     */
+    private static final class PostingList {
+
+        private int[] ids = new int[4];
+
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && id <= ids[size - 1]) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void insertAt(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,616 @@
+package com.example.user.store;
+
+import com.example.user.entity.User;
+import com.example.user.entity.UserPage;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * 线程安全的内存用户存储
+ *
+ * 替代原来静态的ArrayList：按ID、用户名、邮箱查找都是O(1)的哈希查找，
+ * 新用户的ID由原子序列生成，不再对整个列表求max。
+ *
+ * 设计要点:
+ * 1. 主表 ID -> 用户，唯一索引 用户名 -> ID、邮箱（忽略大小写）-> ID，均为ConcurrentHashMap
+ * 2. 写入时先用putIfAbsent占用用户名和邮箱，再发布到主表；占用失败则回滚已占用的索引并抛出
+ *    {@link DuplicateUserException}，并发保存同名用户时只有一个成功
+ * 3. 同一用户的更新在主表的computeIfPresent中进行，与删除互斥；
+ *    改名时先占用新用户名再释放旧用户名，任何时刻都不会有两个用户持有同一个用户名
+ * 4. 存储的是用户的副本且发布后不再修改，读操作不加锁；读索引时再核对主表中的用户名，
+ *    改名或删除过程中的短暂不一致不会返回错误的用户
+ * 5. 调用方拿到的都是副本，修改返回值不会影响存储和索引
+ * 6. 用户名和邮箱另有三元组倒排索引（{@link TrigramIndex}），随写入增量维护，
+ *    子串搜索只需核对候选用户，不再扫描全部用户
+ * 7. 另有按ID排序的跳表，分页和流式遍历按游标定位，不需要复制和排序全部用户
+ * 8. 另有按（长度、折叠大小写后的用户名、ID）排序的跳表，用户名与关键字相同或以关键字开头的用户
+ *    按排序顺序直接取出，搜索的前两档不需要经过三元组候选
+ */
+@Component
+public class UserStore {
+
+    /**
+     * 每批从三元组索引取得的候选用户数
+     * 关键字很宽泛（如邮箱域名）时候选可能有上百万个，按批取得可以避免一次分配巨大的数组
+     */
+    static final int CANDIDATE_BATCH = 4096;
+
+    /**
+     * 一次搜索中，用户名包含关键字、邮箱匹配关键字这几档最多核对的候选用户数
+     * 关键字很宽泛时这几档的候选可能有上百万个，只在ID最小的这部分候选中排序，保证搜索延迟有上限
+     */
+    static final int MAX_CANDIDATES = 4096;
+
+    /**
+     * 按匹配程度、用户名长度、折叠后的用户名、ID排序
+     */
+    private static final Comparator<Hit> BY_RELEVANCE = Comparator.<Hit>comparingInt(hit -> hit.rank)
+            .thenComparingInt(hit -> hit.usernameLength)
+            .thenComparing(hit -> hit.foldedUsername)
+            .thenComparingLong(hit -> hit.id);
+
+    private final ConcurrentMap<Long, User> users = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Long> usernames = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Long> emails = new ConcurrentHashMap<>();
+
+    /**
+     * 按ID排序的用户ID，用于游标分页和按顺序遍历，不需要对全部用户排序
+     */
+    private final ConcurrentSkipListSet<Long> orderedIds = new ConcurrentSkipListSet<>();
+
+    /**
+     * 按（长度、折叠后的用户名、ID）排序的用户名，用于按前缀查找
+     */
+    private final ConcurrentSkipListSet<NameKey> sortedNames = new ConcurrentSkipListSet<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 用户名和邮箱的三元组索引，支持子串搜索
+     */
+    private final TrigramIndex searchIndex = new TrigramIndex();
+
+    /**
+     * 根据ID查找用户
+     *
+     * @param id 用户ID
+     * @return 用户副本
+     */
+    public Optional<User> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        User user = users.get(id);
+        return user != null ? Optional.of(copy(user)) : Optional.<User>empty();
+    }
+
+    /**
+     * 根据用户名查找用户
+     *
+     * @param username 用户名，区分大小写
+     * @return 用户副本，不存在时返回null
+     */
+    public User findByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        Long id = usernames.get(username);
+        User user = id != null ? users.get(id) : null;
+        return user != null && username.equals(user.getUsername()) ? copy(user) : null;
+    }
+
+    /**
+     * 根据邮箱查找用户
+     *
+     * @param email 邮箱，忽略大小写
+     * @return 用户副本，不存在时返回null
+     */
+    public User findByEmail(String email) {
+        String key = emailKey(email);
+        if (key == null) {
+            return null;
+        }
+        Long id = emails.get(key);
+        User user = id != null ? users.get(id) : null;
+        return user != null && key.equals(emailKey(user.getEmail())) ? copy(user) : null;
+    }
+
+    /**
+     * 获取所有用户
+     *
+     * @return 按ID排序的用户副本
+     */
+    public List<User> findAll() {
+        List<User> result = new ArrayList<>();
+        forEachMatch(null, result::add);
+        return result;
+    }
+
+    /**
+     * 按ID顺序分页
+     *
+     * @param after 上一页最后一个用户的ID，第一页为null
+     * @param limit 每页用户数
+     * @return 当前页及下一页的游标（下一页第一个用户之前的ID）
+     */
+    public UserPage page(Long after, int limit) {
+        List<User> items = new ArrayList<>(Math.min(Math.max(limit, 0), 1024));
+        Iterable<Long> ids = after != null ? orderedIds.tailSet(after, false) : orderedIds;
+        boolean more = false;
+        for (Long id : ids) {
+            User user = users.get(id);
+            if (user == null) {
+                continue;  // 删除过程中的ID
+            }
+            if (items.size() == limit) {
+                more = true;
+                break;
+            }
+            items.add(copy(user));
+        }
+        String next = more ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        return new UserPage(items, next);
+    }
+
+    /**
+     * 按关键字搜索用户名或邮箱，忽略大小写
+     *
+     * 结果按匹配程度排序：用户名与关键字相同、用户名以关键字开头、用户名包含关键字、
+     * 邮箱以关键字开头、邮箱包含关键字；同一档内用户名较短的在前，再按用户名和ID排序。
+     *
+     * 前两档从按长度排序的用户名跳表中按顺序取出，凑够一页即停止，结果是精确的，
+     * 全部前缀匹配都能通过翻页取到。前两档不够一页时再查找后三档：关键字不少于3个字符时
+     * 从三元组索引取得候选，否则按ID顺序遍历用户，最多核对 {@link #MAX_CANDIDATES} 个。
+     * 因此后三档是近似结果：候选超过上限时只在ID最小的这部分候选中排序，
+     * ID更大的匹配用户不会出现在结果中，翻页也取不到；需要完整结果时使用 {@link #forEachMatch}。
+     * 翻页时只保留排在游标之后的结果，每次请求只占用limit大小的内存。
+     *
+     * @param keyword 关键字，为空时等同于按ID分页
+     * @param limit 最多返回的用户数
+     * @param after 上一页返回的游标，第一页为null
+     * @return 排好序的用户副本及下一页的游标
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public UserPage search(String keyword, int limit, String after) {
+        if (keyword == null || keyword.isEmpty()) {
+            return page(after != null ? parseId(after) : null, limit);
+        }
+        if (limit <= 0) {
+            return new UserPage(new ArrayList<User>(), null);
+        }
+        Hit cursor = after != null ? Hit.parse(after) : null;
+        // 多取一个用于判断是否还有下一页
+        int fetch = limit < Integer.MAX_VALUE ? limit + 1 : limit;
+        List<Hit> hits = new ArrayList<>(Math.min(fetch, 1024));
+        if (cursor == null || cursor.rank <= 1) {
+            prefixMatches(keyword, cursor, fetch, hits);
+        }
+        if (hits.size() < fetch) {
+            substringMatches(keyword, cursor != null && cursor.rank > 1 ? cursor : null, fetch - hits.size(), hits);
+        }
+
+        boolean more = hits.size() > limit;
+        List<User> items = new ArrayList<>(Math.min(hits.size(), limit));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            items.add(copy(hits.get(i).user));
+        }
+        return new UserPage(items, more ? hits.get(limit - 1).toCursor() : null);
+    }
+
+    /**
+     * 按排序顺序取出用户名与关键字相同或以关键字开头的用户（前两档），凑够fetch个即停止
+     *
+     * 跳表按长度分段，每个长度内以折叠后的关键字为起点向后遍历，遇到不以关键字开头的用户名就换下一个长度；
+     * 没有用户名的长度通过ceiling直接跳过
+     */
+    private void prefixMatches(String keyword, Hit cursor, int fetch, List<Hit> hits) {
+        String prefix = TrigramIndex.fold(keyword);
+        int length = cursor != null ? cursor.usernameLength : keyword.length();
+        NameKey start = cursor != null
+                ? new NameKey(length, cursor.foldedUsername, cursor.id)
+                : new NameKey(length, prefix, Long.MIN_VALUE);
+        boolean inclusive = cursor == null;
+        while (true) {
+            for (NameKey key : sortedNames.tailSet(start, inclusive)) {
+                if (key.length != length || !key.folded.startsWith(prefix)) {
+                    break;
+                }
+                User user = users.get(key.id);
+                if (user == null || !key.folded.equals(TrigramIndex.fold(user.getUsername()))) {
+                    continue;  // 改名或删除过程中的旧用户名
+                }
+                hits.add(new Hit(user, length == keyword.length() ? 0 : 1, key.folded));
+                if (hits.size() == fetch) {
+                    return;
+                }
+            }
+            NameKey next = sortedNames.ceiling(new NameKey(length + 1, prefix, Long.MIN_VALUE));
+            if (next == null) {
+                return;
+            }
+            length = next.length;
+            start = new NameKey(length, prefix, Long.MIN_VALUE);
+            inclusive = true;
+        }
+    }
+
+    /**
+     * 在最多 {@link #MAX_CANDIDATES} 个候选中找出用户名包含关键字或邮箱匹配关键字的用户（后三档），
+     * 排序后追加排在游标之后最好的fetch个
+     */
+    private void substringMatches(String keyword, Hit cursor, int fetch, List<Hit> hits) {
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(fetch, 1024), BY_RELEVANCE.reversed());
+        if (keyword.length() >= TrigramIndex.GRAM) {
+            for (int candidate : searchIndex.candidates(keyword, MAX_CANDIDATES, 0)) {
+                offerSubstring(top, users.get((long) candidate), keyword, cursor, fetch);
+            }
+        } else {
+            int examined = 0;
+            for (Long id : orderedIds) {
+                if (examined++ == MAX_CANDIDATES) {
+                    break;
+                }
+                offerSubstring(top, users.get(id), keyword, cursor, fetch);
+            }
+        }
+        List<Hit> sorted = new ArrayList<>(top);
+        sorted.sort(BY_RELEVANCE);
+        hits.addAll(sorted);
+    }
+
+    private static void offerSubstring(PriorityQueue<Hit> top, User user, String keyword, Hit cursor, int fetch) {
+        Hit hit = match(user, keyword);
+        if (hit != null && hit.rank > 1) {  // 前两档由prefixMatches负责
+            offer(top, hit, cursor, fetch);
+        }
+    }
+
+    /**
+     * 按ID顺序逐个处理匹配关键字的用户，不排序也不截断
+     *
+     * 用于流式输出：用户逐个交给action，不会把全部结果放进一个列表；
+     * 通过索引查找时候选按批取得，每批不超过 {@link #CANDIDATE_BATCH} 个
+     *
+     * @param keyword 关键字，为空时处理全部用户
+     * @param action 处理每个用户（副本）
+     */
+    public void forEachMatch(String keyword, Consumer<User> action) {
+        boolean all = keyword == null || keyword.isEmpty();
+        if (all || keyword.length() < TrigramIndex.GRAM) {
+            for (Long id : orderedIds) {
+                User user = users.get(id);
+                if (user != null && (all || match(user, keyword) != null)) {
+                    action.accept(copy(user));
+                }
+            }
+            return;
+        }
+
+        forEachCandidate(keyword, user -> {
+            if (match(user, keyword) != null) {
+                action.accept(copy(user));
+            }
+        });
+    }
+
+    /**
+     * 按ID顺序遍历三元组索引给出的全部候选用户（存储中的原对象，尚未核对）
+     *
+     * @param keyword 关键字，长度不少于 {@link TrigramIndex#GRAM}
+     * @param action 处理每个候选用户，已删除的候选不会传入
+     */
+    private void forEachCandidate(String keyword, Consumer<User> action) {
+        int after = 0;
+        while (true) {
+            int[] candidates = searchIndex.candidates(keyword, CANDIDATE_BATCH, after);
+            for (int candidate : candidates) {
+                User user = users.get((long) candidate);
+                if (user != null) {
+                    action.accept(user);
+                }
+            }
+            if (candidates.length < CANDIDATE_BATCH) {
+                return;
+            }
+            after = candidates[candidates.length - 1];
+        }
+    }
+
+    /**
+     * 计算匹配程度，不匹配或用户不存在时返回null
+     */
+    private static Hit match(User user, String keyword) {
+        if (user == null) {
+            return null;
+        }
+        int index = indexOfIgnoreCase(user.getUsername(), keyword);
+        if (index == 0) {
+            return new Hit(user, user.getUsername().length() == keyword.length() ? 0 : 1);
+        }
+        if (index > 0) {
+            return new Hit(user, 2);
+        }
+        index = indexOfIgnoreCase(user.getEmail(), keyword);
+        if (index == 0) {
+            return new Hit(user, 3);
+        }
+        return index > 0 ? new Hit(user, 4) : null;
+    }
+
+    /**
+     * 忽略大小写的indexOf，不分配新的字符串
+     */
+    private static int indexOfIgnoreCase(String text, String keyword) {
+        if (text == null) {
+            return -1;
+        }
+        int last = text.length() - keyword.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 保留排在游标之后、最好的limit个结果，队首是当前最差的结果
+     */
+    private static void offer(PriorityQueue<Hit> top, Hit hit, Hit cursor, int limit) {
+        if (hit == null || (cursor != null && BY_RELEVANCE.compare(hit, cursor) <= 0)) {
+            return;
+        }
+        if (top.size() < limit) {
+            top.add(hit);
+        } else if (BY_RELEVANCE.compare(hit, top.peek()) < 0) {
+            top.poll();
+            top.add(hit);
+        }
+    }
+
+    private static Long parseId(String cursor) {
+        try {
+            return Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的游标: " + cursor);
+        }
+    }
+
+    /**
+     * 新增用户并分配ID
+     *
+     * @param user 用户信息，ID会被忽略
+     * @return 保存后的用户副本
+     * @throws DuplicateUserException 用户名或邮箱已被占用
+     */
+    public User insert(User user) {
+        if (user.getUsername() == null || user.getUsername().isEmpty()) {
+            throw new IllegalArgumentException("用户名不能为空");
+        }
+        long id = sequence.incrementAndGet();
+        User stored = copy(user);
+        stored.setId(id);
+
+        reserve(usernames, stored.getUsername(), id, "用户名已存在: ");
+        String email = emailKey(stored.getEmail());
+        if (email != null) {
+            try {
+                reserve(emails, email, id, "邮箱已被使用: ");
+            } catch (DuplicateUserException e) {
+                usernames.remove(stored.getUsername(), id);
+                throw e;
+            }
+        }
+        // 先写索引再发布，搜索或分页遇到尚未发布的ID时会跳过
+        searchIndex.update(id, null, null, stored.getUsername(), stored.getEmail());
+        sortedNames.add(new NameKey(stored.getUsername(), id));
+        orderedIds.add(id);
+        users.put(id, stored);
+        return copy(stored);
+    }
+
+    /**
+     * 更新已有用户
+     *
+     * change在持有该用户的更新权时执行，应当只做字段合并，不要在其中做耗时操作（如哈希密码）
+     *
+     * @param id 用户ID
+     * @param change 根据当前用户（副本）计算新用户，新用户名为null时保留原用户名
+     * @return 更新后的用户副本，用户不存在时返回null
+     * @throws DuplicateUserException 新的用户名或邮箱已被其他用户占用
+     */
+    public User update(Long id, UnaryOperator<User> change) {
+        User updated = users.computeIfPresent(id, (key, current) -> {
+            User next = copy(change.apply(copy(current)));
+            next.setId(key);
+            if (next.getUsername() == null || next.getUsername().isEmpty()) {
+                next.setUsername(current.getUsername());
+            }
+
+            String oldUsername = current.getUsername();
+            String newUsername = next.getUsername();
+            boolean usernameChanged = !newUsername.equals(oldUsername);
+            if (usernameChanged) {
+                reserve(usernames, newUsername, key, "用户名已存在: ");
+            }
+            String oldEmail = emailKey(current.getEmail());
+            String newEmail = emailKey(next.getEmail());
+            boolean emailChanged = !Objects.equals(oldEmail, newEmail);
+            if (emailChanged && newEmail != null) {
+                try {
+                    reserve(emails, newEmail, key, "邮箱已被使用: ");
+                } catch (DuplicateUserException e) {
+                    if (usernameChanged) {
+                        usernames.remove(newUsername, key);
+                    }
+                    throw e;
+                }
+            }
+
+            // 新值已占用成功，释放旧值
+            if (usernameChanged) {
+                usernames.remove(oldUsername, key);
+            }
+            if (emailChanged && oldEmail != null) {
+                emails.remove(oldEmail, key);
+            }
+            searchIndex.update(key, current.getUsername(), current.getEmail(), next.getUsername(), next.getEmail());
+            if (usernameChanged) {
+                NameKey oldName = new NameKey(oldUsername, key);
+                NameKey newName = new NameKey(newUsername, key);
+                if (newName.compareTo(oldName) != 0) {  // 只改了大小写时键不变
+                    sortedNames.add(newName);
+                    sortedNames.remove(oldName);
+                }
+            }
+            return next;
+        });
+        return updated != null ? copy(updated) : null;
+    }
+
+    /**
+     * 删除用户
+     *
+     * @param id 用户ID
+     * @return 用户存在并被删除时返回true
+     */
+    public boolean delete(Long id) {
+        User removed = id != null ? users.remove(id) : null;
+        if (removed == null) {
+            return false;
+        }
+        orderedIds.remove(id);
+        sortedNames.remove(new NameKey(removed.getUsername(), id));
+        usernames.remove(removed.getUsername(), id);
+        String email = emailKey(removed.getEmail());
+        if (email != null) {
+            emails.remove(email, id);
+        }
+        searchIndex.update(id, removed.getUsername(), removed.getEmail(), null, null);
+        return true;
+    }
+
+    /**
+     * 当前用户数
+     *
+     * @return 用户数
+     */
+    public int size() {
+        return users.size();
+    }
+
+    private static void reserve(ConcurrentMap<String, Long> index, String key, Long id, String message) {
+        Long owner = index.putIfAbsent(key, id);
+        if (owner != null && !owner.equals(id)) {
+            throw new DuplicateUserException(message + key);
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email == null || email.isEmpty() ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getUsername(), user.getPassword(), user.getEmail());
+    }
+
+    /**
+     * 搜索命中的用户及其排序键，rank越小越相关
+     *
+     * 排序键（rank、用户名长度、折叠后的用户名、ID）同时用作翻页游标，格式为 rank.length.id.username，
+     * 用户名放在最后，其中的'.'不影响解析
+     */
+    private static final class Hit {
+
+        private final User user;
+
+        private final int rank;
+
+        private final int usernameLength;
+
+        private final String foldedUsername;
+
+        private final long id;
+
+        private Hit(User user, int rank) {
+            this(user, rank, TrigramIndex.fold(user.getUsername()));
+        }
+
+        private Hit(User user, int rank, String foldedUsername) {
+            this(user, rank, foldedUsername.length(), foldedUsername, user.getId());
+        }
+
+        private Hit(User user, int rank, int usernameLength, String foldedUsername, long id) {
+            this.user = user;
+            this.rank = rank;
+            this.usernameLength = usernameLength;
+            this.foldedUsername = foldedUsername;
+            this.id = id;
+        }
+
+        String toCursor() {
+            return rank + "." + usernameLength + "." + id + "." + foldedUsername;
+        }
+
+        static Hit parse(String cursor) {
+            String[] parts = cursor.split("\\.", 4);
+            try {
+                if (parts.length == 4) {
+                    return new Hit(null, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), parts[3],
+                            Long.parseLong(parts[2]));
+                }
+            } catch (NumberFormatException e) {
+                // 按格式错误处理
+            }
+            throw new IllegalArgumentException("无效的游标: " + cursor);
+        }
+    }
+
+    /**
+     * 用户名跳表的键，按长度、折叠后的用户名、ID排序
+     *
+     * 同一长度内折叠后以关键字开头的用户名是连续的一段，按前缀查找只需从关键字处向后遍历
+     */
+    private static final class NameKey implements Comparable<NameKey> {
+
+        private final int length;
+
+        private final String folded;
+
+        private final long id;
+
+        private NameKey(String username, long id) {
+            this(username.length(), TrigramIndex.fold(username), id);
+        }
+
+        private NameKey(int length, String folded, long id) {
+            this.length = length;
+            this.folded = folded;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(NameKey other) {
+            if (length != other.length) {
+                return Integer.compare(length, other.length);
+            }
+            int order = folded.compareTo(other.folded);
+            return order != 0 ? order : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.user.store;
+
+import com.example.user.entity.User;
+import com.example.user.entity.UserPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UserStore并发一致性测试
+ *
+ * 多个线程同时对一小批用户名和邮箱执行新增、改名、改邮箱、删除和查询，制造尽可能多的索引冲突，
+ * 结束后检查存储的一致性:
+ * 1. 每个用户都能通过自己的用户名和邮箱查到，且查到的是同一个ID
+ * 2. 没有两个用户持有相同的用户名或邮箱
+ * 3. 成功新增数 - 成功删除数 = 最终用户数，ID没有重复分配
+ * 4. 运行过程中查询从未返回与查询条件不符的用户
+ * 5. 搜索用的用户名跳表和三元组索引与主表一致：每个用户都能按用户名搜索到，
+ *    按公共前缀翻页搜索时每个用户恰好出现一次
+ */
+class UserStoreConcurrencyTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    /**
+     * 用户名和邮箱的取值范围，故意很小以便频繁冲突
+     */
+    private static final int KEY_SPACE = 256;
+
+    @Test
+    void concurrentWritesKeepIndexesConsistent() throws InterruptedException {
+        final UserStore store = new UserStore();
+        final AtomicLong inserted = new AtomicLong();
+        final AtomicLong deleted = new AtomicLong();
+        final AtomicLong wrongReads = new AtomicLong();
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                String username = "user" + random.nextInt(KEY_SPACE);
+                String email = "mail" + random.nextInt(KEY_SPACE) + "@example.com";
+                try {
+                    switch (random.nextInt(6)) {
+                        case 0:
+                            store.insert(new User(null, username, "password", email));
+                            inserted.incrementAndGet();
+                            break;
+                        case 1: {
+                            User user = store.findByUsername(username);
+                            if (user != null && store.delete(user.getId())) {
+                                deleted.incrementAndGet();
+                            }
+                            break;
+                        }
+                        case 2: {
+                            User user = store.findByUsername(username);
+                            if (user != null) {
+                                final String renamed = "user" + random.nextInt(KEY_SPACE);
+                                final String newEmail = random.nextBoolean() ? null : email;
+                                store.update(user.getId(), current -> {
+                                    current.setUsername(renamed);
+                                    current.setEmail(newEmail);
+                                    return current;
+                                });
+                            }
+                            break;
+                        }
+                        case 3: {
+                            User user = store.findByUsername(username);
+                            if (user != null && !username.equals(user.getUsername())) {
+                                wrongReads.incrementAndGet();
+                            }
+                            break;
+                        }
+                        case 4: {
+                            User user = store.findByEmail(email);
+                            if (user != null && !email.equalsIgnoreCase(user.getEmail())) {
+                                wrongReads.incrementAndGet();
+                            }
+                            break;
+                        }
+                        default: {
+                            User byName = store.findByUsername(username);
+                            if (byName != null) {
+                                User byId = store.findById(byName.getId()).orElse(null);
+                                if (byId != null && !byId.getId().equals(byName.getId())) {
+                                    wrongReads.incrementAndGet();
+                                }
+                            }
+                            break;
+                        }
+                    }
+                } catch (DuplicateUserException e) {
+                    // 预期中的冲突
+                }
+            }
+        });
+
+        List<String> violations = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<User> all = store.findAll();
+        for (User user : all) {
+            if (!ids.add(user.getId())) {
+                violations.add("duplicate id " + user.getId());
+            }
+            if (!usernames.add(user.getUsername())) {
+                violations.add("duplicate username " + user.getUsername());
+            }
+            User byName = store.findByUsername(user.getUsername());
+            if (byName == null || !byName.getId().equals(user.getId())) {
+                violations.add("username index broken for " + user.getUsername());
+            }
+            if (user.getEmail() != null) {
+                if (!emails.add(user.getEmail().toLowerCase(Locale.ROOT))) {
+                    violations.add("duplicate email " + user.getEmail());
+                }
+                User byEmail = store.findByEmail(user.getEmail());
+                if (byEmail == null || !byEmail.getId().equals(user.getId())) {
+                    violations.add("email index broken for " + user.getEmail());
+                }
+            }
+            if (!searchFinds(store, user)) {
+                violations.add("search index broken for " + user.getUsername());
+            }
+        }
+
+        Set<Long> prefixHits = new HashSet<>();
+        String cursor = null;
+        do {
+            UserPage page = store.search("user", 50, cursor);
+            for (User hit : page.getItems()) {
+                if (!prefixHits.add(hit.getId())) {
+                    violations.add("prefix search returned " + hit.getUsername() + " twice");
+                }
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        if (!prefixHits.equals(ids)) {
+            violations.add("prefix search returned " + prefixHits.size() + " users, expected " + ids.size());
+        }
+
+        assertEquals(0L, wrongReads.get(), "reads returned a user that did not match the query");
+        assertEquals(inserted.get() - deleted.get(), all.size(), "inserted - deleted");
+        assertEquals(all.size(), store.size());
+        assertTrue(violations.isEmpty(), () -> violations.size() + " violations, first: "
+                + violations.subList(0, Math.min(10, violations.size())));
+    }
+
+    /**
+     * 按用户名翻页搜索，确认能找到该用户
+     */
+    private static boolean searchFinds(UserStore store, User user) {
+        String cursor = null;
+        do {
+            UserPage page = store.search(user.getUsername(), 100, cursor);
+            for (User hit : page.getItems()) {
+                if (hit.getId().equals(user.getId())) {
+                    return true;
+                }
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return false;
+    }
+
+    /**
+     * 在多个线程中同时执行任务，任一线程抛出异常时让测试失败
+     */
+    private static void runConcurrently(final Runnable task) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.isEmpty(), () -> "worker failed: " + failures.peek());
+    }
+}